@@ -0,0 +1,66 @@
+package com.esoares.financas.api.resource;
+
+import com.esoares.financas.api.dto.LancamentoDTO;
+import com.esoares.financas.benchmark.Dados;
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * conversões entre entidade, projeção e DTO feitas pelo LancamentoResource em cada item de busca,
+ * exportação e lote. Fica no pacote do resource porque os conversores são package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConversaoLancamentoBenchmark {
+
+   private LancamentoResource resource;
+   private Usuario usuario;
+   private Lancamento lancamento;
+   private LancamentoProjecao projecao;
+   private LancamentoDTO dto;
+
+   @Setup
+   public void preparar() {
+      // as conversões medidas não usam os serviços
+      resource = new LancamentoResource(null, null, null, null);
+      usuario = Dados.usuario(1L);
+      lancamento = Dados.lancamentos(usuario, 1, 1).get(0);
+      lancamento.setId(1L);
+      projecao = new LancamentoProjecao(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+              lancamento.getAno(), lancamento.getValor(), usuario.getId(), lancamento.getTipo(),
+              lancamento.getStatus(), lancamento.getDataCadastro(), lancamento.getVersao());
+      dto = resource.converter(lancamento);
+   }
+
+   @Benchmark
+   public LancamentoDTO entidadeParaDto() {
+      return resource.converter(lancamento);
+   }
+
+   @Benchmark
+   public LancamentoDTO projecaoParaDto() {
+      return resource.converter(projecao);
+   }
+
+   @Benchmark
+   public Lancamento dtoParaEntidade() {
+      return resource.converter(dto, usuario);
+   }
+}
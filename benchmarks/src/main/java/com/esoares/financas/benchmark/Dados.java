@@ -0,0 +1,45 @@
+package com.esoares.financas.benchmark;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * massa de dados dos benchmarks, gerada com semente fixa para que execuções de versões diferentes
+ * meçam exatamente o mesmo conteúdo.
+ */
+public final class Dados {
+
+   private Dados() {
+   }
+
+   public static Usuario usuario(Long id) {
+      return Usuario.builder().id(id).nome("usuario " + id).email("usuario" + id + "@email.com").senha("senha").build();
+   }
+
+   public static List<Lancamento> lancamentos(Usuario usuario, int quantidade, long semente) {
+      Random random = new Random(semente);
+      List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+      for (int i = 0; i < quantidade; i++) {
+         lancamentos.add(Lancamento.builder()
+                 .descricao("Lançamento " + i + " mercado; farmácia \"centro\"")
+                 .ano(2020 + random.nextInt(5))
+                 .mes(1 + random.nextInt(12))
+                 .valor(BigDecimal.valueOf(1 + random.nextInt(100_000), 2))
+                 .tipo(random.nextBoolean() ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                 .status(StatusLancamento.PENDENTE)
+                 .dataCadastro(LocalDate.of(2024, 1, 1).plusDays(random.nextInt(365)))
+                 .usuario(usuario)
+                 .versao(0L)
+                 .build());
+      }
+      return lancamentos;
+   }
+}
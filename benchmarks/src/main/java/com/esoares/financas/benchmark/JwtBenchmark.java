@@ -0,0 +1,106 @@
+package com.esoares.financas.benchmark;
+
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.UsuarioAutenticado;
+import com.esoares.financas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * verificações de token por segundo. {@code verificacaoAnterior} reproduz o caminho antigo do filtro
+ * (chave e parser montados a cada chamada e o token lido duas vezes) como linha de base para
+ * {@code autenticarSemCache} (uma verificação com o parser pronto) e {@code autenticarComCache} (acerto no cache).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+   private static final String CHAVE = "ZGlkIHlvdSBrbm93IHRoYXQgdGhlcmUgaXMgYSB0dW5uZWwgdW5kZXIgb2NlYW4gYmx2Pw==";
+
+   private AnnotationConfigApplicationContext contexto;
+   private JwtService service;
+   private Usuario usuario;
+   private String token;
+
+   @Setup
+   public void preparar() {
+      // o contexto resolve os @Value e chama o @PostConstruct como na aplicação
+      contexto = new AnnotationConfigApplicationContext();
+      contexto.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", Map.of(
+              "jwt.expiracao", "30",
+              "jwt.chave-assinatura", CHAVE)));
+      contexto.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+      contexto.register(JwtServiceImpl.class);
+      contexto.refresh();
+      service = contexto.getBean(JwtService.class);
+      usuario = Dados.usuario(1L);
+      token = service.generateToken(usuario);
+   }
+
+   @TearDown
+   public void encerrar() {
+      contexto.close();
+   }
+
+   @Benchmark
+   public String generateToken() {
+      return service.generateToken(usuario);
+   }
+
+   @Benchmark
+   public boolean isTokenValido() {
+      return service.isTokenValido(token);
+   }
+
+   @Benchmark
+   public Optional<UsuarioAutenticado> autenticarComCache() {
+      return service.autenticar(token);
+   }
+
+   @Benchmark
+   public Optional<Claims> autenticarSemCache() {
+      return service.obterClaimsValidas(token);
+   }
+
+   @Benchmark
+   public void verificacaoAnterior(Blackhole blackhole) {
+      blackhole.consume(Jwts.parserBuilder()
+              .setSigningKey(Keys.hmacShaKeyFor(CHAVE.getBytes(StandardCharsets.UTF_8)))
+              .build()
+              .parseClaimsJws(token)
+              .getBody());
+      blackhole.consume(Jwts.parserBuilder()
+              .setSigningKey(Keys.hmacShaKeyFor(CHAVE.getBytes(StandardCharsets.UTF_8)))
+              .build()
+              .parseClaimsJws(token)
+              .getBody()
+              .getSubject());
+   }
+}
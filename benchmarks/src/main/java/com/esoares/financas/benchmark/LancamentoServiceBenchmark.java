@@ -0,0 +1,59 @@
+package com.esoares.financas.benchmark;
+
+import com.esoares.financas.exception.RegraNegocioException;
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.service.impl.LancamentoServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * validação usada em salvar, atualizar e em cada item do lote; o caso inválido mede o custo da exceção,
+ * que aparece uma vez por item rejeitado em um lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoServiceBenchmark {
+
+   private LancamentoServiceImpl service;
+   private Lancamento valido;
+   private Lancamento invalido;
+
+   @Setup
+   public void preparar() {
+      // validar não usa as dependências
+      service = new LancamentoServiceImpl(null, null, null, null, null, null);
+      valido = Dados.lancamentos(Dados.usuario(1L), 1, 1).get(0);
+      invalido = Dados.lancamentos(Dados.usuario(1L), 1, 1).get(0);
+      invalido.setMes(13);
+   }
+
+   @Benchmark
+   public Lancamento validar() {
+      service.validar(valido);
+      return valido;
+   }
+
+   @Benchmark
+   public Object validarInvalido() {
+      try {
+         service.validar(invalido);
+         return invalido;
+      } catch (RegraNegocioException e) {
+         return e;
+      }
+   }
+}
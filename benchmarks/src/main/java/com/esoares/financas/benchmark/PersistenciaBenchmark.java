@@ -0,0 +1,134 @@
+package com.esoares.financas.benchmark;
+
+import com.esoares.financas.FinancasApplication;
+import com.esoares.financas.api.resource.LancamentoResource;
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.repository.LancamentoFiltro;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.ResultadoLote;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * caminhos que dependem do banco, com a aplicação completa no perfil test (H2 em memória) e uma tabela
+ * lancamento semeada com {@link #LANCAMENTOS} linhas de um usuário: latência da busca por critérios indexados,
+ * linhas por segundo do lote com inserts em batch e linhas por segundo da exportação em cada formato.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PersistenciaBenchmark {
+
+   static final int LANCAMENTOS = 100_000;
+   static final int TAMANHO_LOTE = 1_000;
+
+   private ConfigurableApplicationContext contexto;
+   private LancamentoService service;
+   private LancamentoResource resource;
+   private Usuario usuario;
+   private Usuario usuarioLote;
+
+   @Setup
+   public void preparar() {
+      contexto = new SpringApplicationBuilder(FinancasApplication.class)
+              .profiles("test", "benchmark")
+              .run();
+      service = contexto.getBean(LancamentoService.class);
+      resource = contexto.getBean(LancamentoResource.class);
+      UsuarioRepository usuarios = contexto.getBean(UsuarioRepository.class);
+      usuario = usuarios.save(Usuario.builder().nome("consulta").email("consulta@email.com").senha("senha").build());
+      usuarioLote = usuarios.save(Usuario.builder().nome("lote").email("lote@email.com").senha("senha").build());
+
+      List<Lancamento> massa = Dados.lancamentos(usuario, LANCAMENTOS, 42);
+      for (int i = 0; i < massa.size(); i += 5_000) {
+         service.salvarEmLote(massa.subList(i, Math.min(i + 5_000, massa.size())));
+      }
+   }
+
+   @TearDown
+   public void encerrar() {
+      contexto.close();
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.SampleTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public List<LancamentoProjecao> buscarPorPeriodo() {
+      return service.buscar(LancamentoFiltro.builder()
+              .idUsuario(usuario.getId())
+              .ano(2022)
+              .mes(6)
+              .tipo(TipoLancamento.DESPESA)
+              .build());
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.SampleTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public List<LancamentoProjecao> buscarPorFaixaDeValor() {
+      return service.buscar(LancamentoFiltro.builder()
+              .idUsuario(usuario.getId())
+              .valorMinimo(BigDecimal.valueOf(100))
+              .valorMaximo(BigDecimal.valueOf(105))
+              .build());
+   }
+
+   /**
+    * resultado em linhas por segundo.
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.Throughput)
+   @OutputTimeUnit(TimeUnit.SECONDS)
+   @OperationsPerInvocation(TAMANHO_LOTE)
+   public ResultadoLote salvarEmLote() {
+      return service.salvarEmLote(Dados.lancamentos(usuarioLote, TAMANHO_LOTE, System.nanoTime()));
+   }
+
+   /**
+    * pelo mesmo caminho do GET /api/lancamentos/export; resultado em linhas por segundo.
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.Throughput)
+   @OutputTimeUnit(TimeUnit.SECONDS)
+   @OperationsPerInvocation(LANCAMENTOS)
+   public void exportar(Exportacao exportacao) throws IOException {
+      StreamingResponseBody corpo = (StreamingResponseBody) resource.exportar(usuario.getId(), exportacao.formato)
+              .getBody();
+      corpo.writeTo(OutputStream.nullOutputStream());
+   }
+
+   /**
+    * separado do estado principal para que só a exportação varie por formato.
+    */
+   @State(Scope.Benchmark)
+   public static class Exportacao {
+
+      @Param({"NDJSON", "CSV"})
+      String formato;
+   }
+}
@@ -0,0 +1,51 @@
+package com.esoares.financas.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * custo do BCrypt por fator de custo (senha.bcrypt.forca), para dimensionar o pool de hash de senha:
+ * cada ponto a mais dobra o tempo de um login.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SenhaBenchmark {
+
+   @Param({"4", "8", "10", "12"})
+   int forca;
+
+   private BCryptPasswordEncoder encoder;
+   private String hash;
+
+   @Setup
+   public void preparar() {
+      encoder = new BCryptPasswordEncoder(forca);
+      hash = encoder.encode("senha");
+   }
+
+   @Benchmark
+   public String criptografar() {
+      return encoder.encode("senha");
+   }
+
+   @Benchmark
+   public boolean confere() {
+      return encoder.matches("senha", hash);
+   }
+}
@@ -0,0 +1,92 @@
+package com.esoares.financas.benchmark;
+
+import com.esoares.financas.api.dto.LancamentoDTO;
+import com.esoares.financas.api.exportacao.FormatoExportacao;
+import com.esoares.financas.model.entity.Lancamento;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.CharArrayWriter;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * serialização de listas de lançamentos com o ObjectMapper configurado como o do Spring Boot, e escrita
+ * dos dois formatos de exportação sem o banco (a leitura em streaming é medida no PersistenciaBenchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializacaoBenchmark {
+
+   @Param({"10", "1000"})
+   int quantidade;
+
+   private ObjectMapper mapper;
+   private List<Lancamento> lancamentos;
+   private List<LancamentoDTO> dtos;
+   private CharArrayWriter saida;
+
+   @Setup
+   public void preparar() {
+      mapper = Jackson2ObjectMapperBuilder.json().build();
+      saida = new CharArrayWriter(1 << 20);
+      lancamentos = Dados.lancamentos(Dados.usuario(1L), quantidade, 1);
+      dtos = lancamentos.stream()
+              .map(lancamento -> LancamentoDTO.builder()
+                      .descricao(lancamento.getDescricao())
+                      .mes(lancamento.getMes())
+                      .ano(lancamento.getAno())
+                      .valor(lancamento.getValor())
+                      .usuario(lancamento.getUsuario().getId())
+                      .tipo(lancamento.getTipo().name())
+                      .status(lancamento.getStatus().name())
+                      .versao(lancamento.getVersao())
+                      .build())
+              .toList();
+   }
+
+   @Benchmark
+   public byte[] serializarEntidades() throws JsonProcessingException {
+      return mapper.writeValueAsBytes(lancamentos);
+   }
+
+   @Benchmark
+   public byte[] serializarDtos() throws JsonProcessingException {
+      return mapper.writeValueAsBytes(dtos);
+   }
+
+   @Benchmark
+   public int exportarNdjson() throws IOException {
+      return exportar(FormatoExportacao.NDJSON);
+   }
+
+   @Benchmark
+   public int exportarCsv() throws IOException {
+      return exportar(FormatoExportacao.CSV);
+   }
+
+   private int exportar(FormatoExportacao formato) throws IOException {
+      saida.reset();
+      Consumer<LancamentoDTO> escritor = formato.escritor(saida, mapper);
+      dtos.forEach(escritor);
+      return saida.size();
+   }
+}
@@ -0,0 +1,112 @@
+package com.esoares.financas.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * latências (em microssegundos) e erros de cada operação, registrados por todos os clientes ao mesmo tempo.
+ */
+public class Medicoes {
+
+   private static final long LATENCIA_MAXIMA = TimeUnit.MINUTES.toMicros(1);
+
+   private final Map<Operacao, Histogram> latencias = new EnumMap<>(Operacao.class);
+   private final Map<Operacao, LongAdder> erros = new EnumMap<>(Operacao.class);
+
+   public Medicoes() {
+      for (Operacao operacao : Operacao.values()) {
+         latencias.put(operacao, new ConcurrentHistogram(LATENCIA_MAXIMA, 3));
+         erros.put(operacao, new LongAdder());
+      }
+   }
+
+   public void registrar(Operacao operacao, long micros, boolean sucesso) {
+      latencias.get(operacao).recordValue(Math.min(micros, LATENCIA_MAXIMA));
+      if (!sucesso) {
+         erros.get(operacao).increment();
+      }
+   }
+
+   public long getRequisicoes(Operacao operacao) {
+      return latencias.get(operacao).getTotalCount();
+   }
+
+   public long getRequisicoes() {
+      return latencias.values().stream().mapToLong(Histogram::getTotalCount).sum();
+   }
+
+   public long getErros(Operacao operacao) {
+      return erros.get(operacao).sum();
+   }
+
+   public double getTaxaErro(Operacao operacao) {
+      long requisicoes = getRequisicoes(operacao);
+      return requisicoes == 0 ? 0 : (double) getErros(operacao) / requisicoes;
+   }
+
+   /**
+    * percentil da latência em milissegundos.
+    */
+   public double getPercentil(Operacao operacao, double percentil) {
+      return latencias.get(operacao).getValueAtPercentile(percentil) / 1000.0;
+   }
+
+   public void imprimir(PrintStream saida, double segundos) {
+      saida.printf("%-10s %12s %8s %10s %10s %10s %10s %10s%n",
+              "operação", "requisições", "erros", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "máx ms");
+      for (Operacao operacao : Operacao.values()) {
+         Histogram histograma = latencias.get(operacao);
+         saida.printf("%-10s %12d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                 operacao.getChave(),
+                 histograma.getTotalCount(),
+                 getErros(operacao),
+                 histograma.getTotalCount() / segundos,
+                 getPercentil(operacao, 50),
+                 getPercentil(operacao, 99),
+                 getPercentil(operacao, 99.9),
+                 histograma.getMaxValue() / 1000.0);
+      }
+      saida.printf("%-10s %12d %8s %10.1f%n", "total", getRequisicoes(), "", getRequisicoes() / segundos);
+   }
+
+   /**
+    * números da execução no mesmo formato de chaves dos limites, para servir de linha de base da próxima.
+    */
+   public Properties resumir(double segundos) {
+      Properties resumo = new Properties();
+      resumo.setProperty("vazao", String.format(Locale.ROOT, "%.1f", getRequisicoes() / segundos));
+      for (Operacao operacao : Operacao.values()) {
+         resumo.setProperty(operacao.getChave() + ".vazao",
+                 String.format(Locale.ROOT, "%.1f", getRequisicoes(operacao) / segundos));
+         resumo.setProperty(operacao.getChave() + ".p50-ms", String.format(Locale.ROOT, "%.2f", getPercentil(operacao, 50)));
+         resumo.setProperty(operacao.getChave() + ".p99-ms", String.format(Locale.ROOT, "%.2f", getPercentil(operacao, 99)));
+         resumo.setProperty(operacao.getChave() + ".p999-ms", String.format(Locale.ROOT, "%.2f", getPercentil(operacao, 99.9)));
+         resumo.setProperty(operacao.getChave() + ".taxa-erro", String.format(Locale.ROOT, "%.4f", getTaxaErro(operacao)));
+      }
+      return resumo;
+   }
+
+   /**
+    * distribuição completa de cada operação no formato .hgrm, para comparar execuções no HdrHistogram plotter.
+    */
+   public void gravar(Path diretorio) throws IOException {
+      Files.createDirectories(diretorio);
+      for (Operacao operacao : Operacao.values()) {
+         try (PrintStream arquivo = new PrintStream(
+                 Files.newOutputStream(diretorio.resolve(operacao.getChave() + ".hgrm")))) {
+            latencias.get(operacao).outputPercentileDistribution(arquivo, 1000.0);
+         }
+      }
+   }
+}
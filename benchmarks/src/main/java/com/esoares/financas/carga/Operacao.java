@@ -0,0 +1,53 @@
+package com.esoares.financas.carga;
+
+import java.util.Arrays;
+
+/**
+ * endpoints exercitados pelo teste de carga e o peso de cada um na mistura de tráfego
+ * (proporção aproximada de uma sessão de uso do front-end).
+ */
+public enum Operacao {
+
+   LOGIN("login", 2),
+   BUSCA("busca", 40),
+   SALDO("saldo", 25),
+   INCLUSAO("inclusao", 15),
+   STATUS("status", 8),
+   EXCLUSAO("exclusao", 10);
+
+   private static final int PESO_TOTAL = Arrays.stream(values()).mapToInt(Operacao::getPeso).sum();
+
+   private final String chave;
+   private final int peso;
+
+   Operacao(String chave, int peso) {
+      this.chave = chave;
+      this.peso = peso;
+   }
+
+   public String getChave() {
+      return chave;
+   }
+
+   public int getPeso() {
+      return peso;
+   }
+
+   /**
+    * operação correspondente a um número sorteado entre 0 (inclusive) e a soma dos pesos.
+    */
+   public static Operacao sortear(int sorteado) {
+      int acumulado = 0;
+      for (Operacao operacao : values()) {
+         acumulado += operacao.peso;
+         if (sorteado < acumulado) {
+            return operacao;
+         }
+      }
+      throw new IllegalArgumentException("Número fora da soma dos pesos: " + sorteado);
+   }
+
+   public static int getPesoTotal() {
+      return PESO_TOTAL;
+   }
+}
@@ -0,0 +1,349 @@
+package com.esoares.financas.carga;
+
+import com.esoares.financas.FinancasApplication;
+import com.esoares.financas.api.dto.LancamentoDTO;
+import com.esoares.financas.benchmark.Dados;
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * teste de carga HTTP: sobe a aplicação no perfil test (H2 em memória), cadastra usuários e lançamentos pelos
+ * próprios endpoints e mantém {@code clientes} clientes em laço fechado sobre a mistura de {@link Operacao},
+ * todos com JWT válido. Ao final imprime vazão e percentis por operação, grava os histogramas e termina com
+ * código 1 se algum limite de carga.properties for ultrapassado ou se a execução regredir em relação à linha de base.
+ * <p>
+ * Parâmetros no formato chave=valor sobrescrevem carga.properties, por exemplo
+ * {@code clientes=2000 duracao=60 perfis=virtual-threads}.
+ */
+public class TesteCarga {
+
+   private static final int TAMANHO_LOTE = 5_000;
+
+   private final Properties configuracao;
+   private final HttpClient http = HttpClient.newBuilder()
+           .version(HttpClient.Version.HTTP_1_1)
+           .connectTimeout(Duration.ofSeconds(10))
+           .build();
+   private final ObjectMapper mapper = new ObjectMapper();
+   private final Medicoes medicoes = new Medicoes();
+
+   private String base;
+   private volatile boolean medindo;
+   private volatile boolean encerrado;
+
+   public TesteCarga(Properties configuracao) {
+      this.configuracao = configuracao;
+   }
+
+   public static void main(String[] args) throws Exception {
+      Properties configuracao = new Properties();
+      try (InputStream padrao = TesteCarga.class.getResourceAsStream("/carga.properties")) {
+         configuracao.load(padrao);
+      }
+      for (String argumento : args) {
+         String[] chaveValor = argumento.split("=", 2);
+         if (chaveValor.length != 2) {
+            throw new IllegalArgumentException("Parâmetro inválido, use chave=valor: " + argumento);
+         }
+         configuracao.setProperty(chaveValor[0], chaveValor[1]);
+      }
+      boolean aprovado = new TesteCarga(configuracao).executar();
+      System.exit(aprovado ? 0 : 1);
+   }
+
+   public boolean executar() throws Exception {
+      String[] perfis = Stream.concat(Stream.of("test", "benchmark"),
+                      Arrays.stream(texto("perfis").split(",")).map(String::trim).filter(perfil -> !perfil.isEmpty()))
+              .toArray(String[]::new);
+
+      try (ConfigurableApplicationContext contexto = new SpringApplicationBuilder(FinancasApplication.class)
+              .profiles(perfis)
+              .run()) {
+         base = "http://localhost:" + contexto.getEnvironment().getProperty("local.server.port");
+
+         System.out.printf("cadastrando %d usuários com %d lançamentos cada%n", inteiro("usuarios"), inteiro("lancamentos"));
+         List<Sessao> sessoes = semear(inteiro("usuarios"), inteiro("lancamentos"));
+
+         int clientes = inteiro("clientes");
+         System.out.printf("%d clientes, %ds de aquecimento e %ds de medição, perfis %s%n",
+                 clientes, inteiro("aquecimento"), inteiro("duracao"), String.join(",", perfis));
+         ExecutorService executor = Executors.newFixedThreadPool(clientes);
+         for (int i = 0; i < clientes; i++) {
+            executor.submit(new Cliente(sessoes.get(i % sessoes.size()), new Random(i)));
+         }
+
+         TimeUnit.SECONDS.sleep(inteiro("aquecimento"));
+         medindo = true;
+         long inicio = System.nanoTime();
+         TimeUnit.SECONDS.sleep(inteiro("duracao"));
+         medindo = false;
+         double segundos = (System.nanoTime() - inicio) / 1e9;
+         encerrado = true;
+         executor.shutdown();
+         executor.awaitTermination(1, TimeUnit.MINUTES);
+
+         medicoes.imprimir(System.out, segundos);
+         Path saida = Path.of(texto("saida"));
+         medicoes.gravar(saida);
+         Properties resumo = medicoes.resumir(segundos);
+         try (OutputStream arquivo = Files.newOutputStream(saida.resolve("resumo.properties"))) {
+            resumo.store(arquivo, "resultado do teste de carga; copie para usar como linha-base");
+         }
+         return verificarLimites(resumo);
+      }
+   }
+
+   /**
+    * usuários e lançamentos criados pela API, como um cliente real faria; devolve a sessão autenticada de cada usuário.
+    */
+   private List<Sessao> semear(int usuarios, int lancamentos) throws IOException, InterruptedException {
+      List<Sessao> sessoes = new ArrayList<>(usuarios);
+      for (int i = 0; i < usuarios; i++) {
+         Sessao sessao = new Sessao("carga" + i + "@email.com", "senha");
+         HttpResponse<String> cadastro = enviar("POST", "/api/usuarios",
+                 Map.of("nome", "carga " + i, "email", sessao.email, "senha", sessao.senha), null);
+         exigir(cadastro, 201);
+         sessao.id = mapper.readTree(cadastro.body()).get("id").asLong();
+         exigir(autenticar(sessao), 200);
+
+         List<Lancamento> massa = Dados.lancamentos(Usuario.builder().id(sessao.id).build(), lancamentos, i);
+         for (int j = 0; j < massa.size(); j += TAMANHO_LOTE) {
+            List<LancamentoDTO> lote = massa.subList(j, Math.min(j + TAMANHO_LOTE, massa.size())).stream()
+                    .map(lancamento -> dto(lancamento.getDescricao(), lancamento.getAno(), lancamento.getMes(),
+                            lancamento.getValor(), sessao.id, lancamento.getTipo().name()))
+                    .toList();
+            exigir(enviar("POST", "/api/lancamentos/lote", lote, sessao.token), 201);
+         }
+         sessoes.add(sessao);
+      }
+      return sessoes;
+   }
+
+   /**
+    * limites absolutos de carga.properties e, se houver linha-base, a regressão em relação a ela: vazão menor ou p99
+    * maior que a da linha de base além da tolerância.
+    */
+   private boolean verificarLimites(Properties resumo) throws IOException {
+      List<String> violacoes = new ArrayList<>();
+      double vazao = Double.parseDouble(resumo.getProperty("vazao"));
+      if (vazao < decimal("vazao-minima")) {
+         violacoes.add(String.format("vazão total de %.1f req/s abaixo do mínimo de %s", vazao, texto("vazao-minima")));
+      }
+      for (Operacao operacao : Operacao.values()) {
+         if (medicoes.getRequisicoes(operacao) == 0) {
+            violacoes.add(operacao.getChave() + ": nenhuma requisição medida");
+            continue;
+         }
+         double p99 = medicoes.getPercentil(operacao, 99);
+         double limiteP99 = decimal(operacao.getChave() + ".p99-ms");
+         if (p99 > limiteP99) {
+            violacoes.add(String.format("%s: p99 de %.2f ms acima do limite de %.2f ms", operacao.getChave(), p99, limiteP99));
+         }
+         double taxaErro = medicoes.getTaxaErro(operacao);
+         double limiteErro = decimal(operacao.getChave() + ".taxa-erro");
+         if (taxaErro > limiteErro) {
+            violacoes.add(String.format("%s: taxa de erro de %.4f acima do limite de %.4f", operacao.getChave(), taxaErro, limiteErro));
+         }
+      }
+
+      if (!texto("linha-base").isBlank()) {
+         Properties base = new Properties();
+         try (InputStream arquivo = Files.newInputStream(Path.of(texto("linha-base")))) {
+            base.load(arquivo);
+         }
+         double tolerancia = decimal("tolerancia");
+         double vazaoBase = Double.parseDouble(base.getProperty("vazao"));
+         if (vazao < vazaoBase * (1 - tolerancia)) {
+            violacoes.add(String.format("vazão total de %.1f req/s caiu mais que %.0f%% em relação à linha de base (%.1f)",
+                    vazao, tolerancia * 100, vazaoBase));
+         }
+         for (Operacao operacao : Operacao.values()) {
+            String chave = operacao.getChave() + ".p99-ms";
+            double p99 = Double.parseDouble(resumo.getProperty(chave));
+            double p99Base = Double.parseDouble(base.getProperty(chave));
+            if (p99 > p99Base * (1 + tolerancia)) {
+               violacoes.add(String.format("%s: p99 de %.2f ms subiu mais que %.0f%% em relação à linha de base (%.2f ms)",
+                       operacao.getChave(), p99, tolerancia * 100, p99Base));
+            }
+         }
+      }
+
+      violacoes.forEach(violacao -> System.out.println("LIMITE ULTRAPASSADO " + violacao));
+      return violacoes.isEmpty();
+   }
+
+   private HttpResponse<String> autenticar(Sessao sessao) throws IOException, InterruptedException {
+      HttpResponse<String> resposta = enviar("POST", "/api/usuarios/autenticar",
+              Map.of("email", sessao.email, "senha", sessao.senha), null);
+      if (resposta.statusCode() == 200) {
+         sessao.token = mapper.readTree(resposta.body()).get("token").asText();
+      }
+      return resposta;
+   }
+
+   private HttpResponse<String> enviar(String metodo, String caminho, Object corpo, String token)
+           throws IOException, InterruptedException {
+      HttpRequest.Builder requisicao = HttpRequest.newBuilder(URI.create(base + caminho))
+              .timeout(Duration.ofSeconds(30))
+              .method(metodo, corpo == null
+                      ? HttpRequest.BodyPublishers.noBody()
+                      : HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(corpo)));
+      if (corpo != null) {
+         requisicao.header("Content-Type", "application/json");
+      }
+      if (token != null) {
+         requisicao.header("Authorization", "Bearer " + token);
+      }
+      return http.send(requisicao.build(), HttpResponse.BodyHandlers.ofString());
+   }
+
+   private static void exigir(HttpResponse<String> resposta, int status) {
+      if (resposta.statusCode() != status) {
+         throw new IllegalStateException("Falha ao preparar a carga: " + resposta.request().method() + " "
+                 + resposta.request().uri() + " devolveu " + resposta.statusCode() + ": " + resposta.body());
+      }
+   }
+
+   private static LancamentoDTO dto(String descricao, int ano, int mes, BigDecimal valor, Long usuario, String tipo) {
+      return LancamentoDTO.builder()
+              .descricao(descricao)
+              .ano(ano)
+              .mes(mes)
+              .valor(valor)
+              .usuario(usuario)
+              .tipo(tipo)
+              .build();
+   }
+
+   private String texto(String chave) {
+      String valor = configuracao.getProperty(chave);
+      if (valor == null) {
+         throw new IllegalArgumentException("Configuração ausente em carga.properties: " + chave);
+      }
+      return valor;
+   }
+
+   private int inteiro(String chave) {
+      return Integer.parseInt(texto(chave));
+   }
+
+   private double decimal(String chave) {
+      return Double.parseDouble(texto(chave));
+   }
+
+   /**
+    * usuário semeado; clientes que compartilham o usuário compartilham também o token mais recente.
+    */
+   private static class Sessao {
+      private final String email;
+      private final String senha;
+      private Long id;
+      private volatile String token;
+
+      private Sessao(String email, String senha) {
+         this.email = email;
+         this.senha = senha;
+      }
+   }
+
+   /**
+    * um cliente em laço fechado: envia a próxima requisição assim que recebe a resposta da anterior.
+    * Só altera e exclui lançamentos que ele mesmo incluiu, para que a massa semeada fique estável.
+    */
+   private class Cliente implements Runnable {
+
+      private final Sessao sessao;
+      private final Random random;
+      private final Deque<Long> incluidos = new ArrayDeque<>();
+
+      private Cliente(Sessao sessao, Random random) {
+         this.sessao = sessao;
+         this.random = random;
+      }
+
+      @Override
+      public void run() {
+         while (!encerrado) {
+            Operacao operacao = Operacao.sortear(random.nextInt(Operacao.getPesoTotal()));
+            if ((operacao == Operacao.STATUS || operacao == Operacao.EXCLUSAO) && incluidos.isEmpty()) {
+               operacao = Operacao.INCLUSAO;
+            }
+            long inicio = System.nanoTime();
+            boolean sucesso;
+            try {
+               sucesso = executar(operacao);
+            } catch (IOException e) {
+               sucesso = false;
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               return;
+            }
+            if (medindo) {
+               medicoes.registrar(operacao, (System.nanoTime() - inicio) / 1_000, sucesso);
+            }
+         }
+      }
+
+      private boolean executar(Operacao operacao) throws IOException, InterruptedException {
+         switch (operacao) {
+            case LOGIN:
+               return autenticar(sessao).statusCode() == 200;
+            case BUSCA:
+               return enviar("GET", String.format("/api/lancamentos?usuario=%d&ano=%d&mes=%d",
+                       sessao.id, 2020 + random.nextInt(5), 1 + random.nextInt(12)), null, sessao.token)
+                       .statusCode() == 200;
+            case SALDO:
+               return enviar("GET", "/api/usuarios/" + sessao.id + "/saldo", null, sessao.token).statusCode() == 200;
+            case INCLUSAO:
+               HttpResponse<String> inclusao = enviar("POST", "/api/lancamentos",
+                       dto("Carga " + random.nextInt(1000), 2024, 1 + random.nextInt(12),
+                               BigDecimal.valueOf(1 + random.nextInt(100_000), 2), sessao.id,
+                               random.nextBoolean() ? "RECEITA" : "DESPESA"),
+                       sessao.token);
+               if (inclusao.statusCode() != 201) {
+                  return false;
+               }
+               JsonNode incluido = mapper.readTree(inclusao.body());
+               incluidos.addLast(incluido.get("id").asLong());
+               return true;
+            case STATUS:
+               return enviar("PUT", "/api/lancamentos/" + incluidos.peekLast() + "/atualiza-status",
+                       Map.of("status", random.nextBoolean() ? "EFETIVADO" : "CANCELADO"), sessao.token)
+                       .statusCode() == 200;
+            case EXCLUSAO:
+               return enviar("DELETE", "/api/lancamentos/" + incluidos.pollFirst(), null, sessao.token)
+                       .statusCode() == 204;
+            default:
+               throw new IllegalStateException("Operação sem implementação: " + operacao);
+         }
+      }
+   }
+}
@@ -0,0 +1,48 @@
+package com.esoares.financas.api;
+
+/**
+ * comandos SQL executados durante uma requisição HTTP e o tempo somado deles no JDBC.
+ * Só conta o que roda na thread da requisição: o trabalho de respostas em streaming, que continua em outra
+ * thread depois do dispatch, fica de fora.
+ */
+public class ConsultasRequisicao {
+
+   /**
+    * atributo da requisição com a contagem final, lido pelos testes.
+    */
+   public static final String ATRIBUTO = ConsultasRequisicao.class.getName();
+
+   private static final ThreadLocal<ConsultasRequisicao> ATUAL = new ThreadLocal<>();
+
+   private int quantidade;
+   private long tempoMillis;
+
+   static ConsultasRequisicao iniciar() {
+      ConsultasRequisicao consultas = new ConsultasRequisicao();
+      ATUAL.set(consultas);
+      return consultas;
+   }
+
+   static void encerrar() {
+      ATUAL.remove();
+   }
+
+   /**
+    * chamado pelo proxy do datasource após cada execução; um lote (executeBatch) conta como um comando.
+    */
+   public static void registrar(long millis) {
+      ConsultasRequisicao consultas = ATUAL.get();
+      if (consultas != null) {
+         consultas.quantidade++;
+         consultas.tempoMillis += millis;
+      }
+   }
+
+   public int getQuantidade() {
+      return quantidade;
+   }
+
+   public long getTempoMillis() {
+      return tempoMillis;
+   }
+}
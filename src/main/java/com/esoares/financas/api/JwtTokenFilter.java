@@ -1,27 +1,49 @@
 package com.esoares.financas.api;
 
 import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.UsuarioAutenticado;
 import com.esoares.financas.service.impl.SecurityUserDetailsService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 public class JwtTokenFilter extends OncePerRequestFilter {
 
+   private static final List<GrantedAuthority> AUTORIDADES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+   private static final GrantedAuthority ADMINISTRADOR = new SimpleGrantedAuthority("ROLE_ADMIN");
+
    private final JwtService jwtService;
    private final SecurityUserDetailsService userDetailsService;
+   private final boolean stateless;
+   private final Set<String> administradores;
 
-   public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService) {
+   /**
+    * com stateless o principal sai das claims do token (id, nome e e-mail), sem consulta ao banco por requisição;
+    * sem ele o usuário é conferido pelo UserDetailsService a cada chamada, como antes. O principal é o mesmo
+    * nos dois modos, só as autoridades vêm do banco.
+    *
+    * @param administradores e-mails que recebem ROLE_ADMIN, exigida pelas operações de manutenção
+    */
+   public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService, boolean stateless,
+                         Set<String> administradores) {
       this.jwtService = jwtService;
       this.userDetailsService = userDetailsService;
+      this.stateless = stateless;
+      this.administradores = administradores;
    }
 
    @Override
@@ -30,21 +52,34 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
       if (authorization != null && authorization.startsWith("Bearer")) {
          String token = authorization.substring(7);
-         boolean isValid = jwtService.isTokenValido(token);
-
-         if (isValid) {
-            String username = jwtService.obterLoginUsuario(token);
-            UserDetails usuarioAutenticado = userDetailsService.loadUserByUsername(username);
-            UsernamePasswordAuthenticationToken user = new UsernamePasswordAuthenticationToken(
-                    usuarioAutenticado,
-                    null,
-                    usuarioAutenticado.getAuthorities());
+         jwtService.autenticar(token).ifPresent(usuarioAutenticado -> {
+            UsernamePasswordAuthenticationToken user = stateless
+                    ? new UsernamePasswordAuthenticationToken(usuarioAutenticado, null, autoridades(usuarioAutenticado, AUTORIDADES))
+                    : autenticarPorBanco(usuarioAutenticado);
             user.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
             SecurityContextHolder.getContext().setAuthentication(user);
-         }
+         });
       }
       filterChain.doFilter(request, response);
 
 
    }
+
+   private UsernamePasswordAuthenticationToken autenticarPorBanco(UsuarioAutenticado usuarioAutenticado) {
+      UserDetails usuarioCadastrado = userDetailsService.loadUserByUsername(usuarioAutenticado.getEmail());
+      return new UsernamePasswordAuthenticationToken(
+              usuarioAutenticado,
+              null,
+              autoridades(usuarioAutenticado, usuarioCadastrado.getAuthorities()));
+   }
+
+   private Collection<? extends GrantedAuthority> autoridades(UsuarioAutenticado usuario,
+                                                             Collection<? extends GrantedAuthority> autoridades) {
+      if (!administradores.contains(usuario.getEmail())) {
+         return autoridades;
+      }
+      List<GrantedAuthority> comAdministrador = new ArrayList<>(autoridades);
+      comAdministrador.add(ADMINISTRADOR);
+      return comAdministrador;
+   }
 }
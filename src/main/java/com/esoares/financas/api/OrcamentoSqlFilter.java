@@ -0,0 +1,140 @@
+package com.esoares.financas.api;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+
+/**
+ * conta os comandos SQL de cada requisição e compara com o orçamento do endpoint (método e padrão da rota,
+ * por exemplo "GET /api/lancamentos/{id}"), para que um N+1 novo apareça no log ou quebre o teste que o introduziu.
+ */
+public class OrcamentoSqlFilter extends OncePerRequestFilter {
+
+   public static final String CABECALHO_CONSULTAS = "X-Consultas-SQL";
+   public static final String CABECALHO_TEMPO = "X-Tempo-SQL-ms";
+
+   private static final Logger log = LoggerFactory.getLogger(OrcamentoSqlFilter.class);
+
+   public enum Acao {
+      LOG, FALHAR
+   }
+
+   private final Map<String, Integer> limites;
+   private final int limitePadrao;
+   private final Acao acao;
+   private final boolean cabecalhos;
+
+   /**
+    * @param limitePadrao orçamento dos endpoints sem limite próprio; negativo não limita
+    * @param cabecalhos   devolve a contagem nos cabeçalhos da resposta, só fora de produção
+    */
+   public OrcamentoSqlFilter(Map<String, Integer> limites, int limitePadrao, Acao acao, boolean cabecalhos) {
+      this.limites = limites;
+      this.limitePadrao = limitePadrao;
+      this.acao = acao;
+      this.cabecalhos = cabecalhos;
+   }
+
+   @Override
+   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+      ConsultasRequisicao consultas = ConsultasRequisicao.iniciar();
+      request.setAttribute(ConsultasRequisicao.ATRIBUTO, consultas);
+      RespostaComCabecalhos resposta = cabecalhos ? new RespostaComCabecalhos(response, consultas) : null;
+      try {
+         filterChain.doFilter(request, resposta != null ? resposta : response);
+      } finally {
+         ConsultasRequisicao.encerrar();
+      }
+      if (resposta != null) {
+         resposta.escreverCabecalhos();
+      }
+      verificar(request, consultas);
+   }
+
+   private void verificar(HttpServletRequest request, ConsultasRequisicao consultas) {
+      String padrao = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+      String endpoint = request.getMethod() + " " + (padrao != null ? padrao : request.getRequestURI());
+      int limite = padrao != null ? limites.getOrDefault(endpoint, limitePadrao) : limitePadrao;
+      if (limite < 0 || consultas.getQuantidade() <= limite) {
+         return;
+      }
+
+      String mensagem = String.format("%s executou %d comandos SQL em %d ms, acima do orçamento de %d.",
+              endpoint, consultas.getQuantidade(), consultas.getTempoMillis(), limite);
+      if (acao == Acao.FALHAR) {
+         throw new IllegalStateException(mensagem);
+      }
+      log.warn(mensagem);
+   }
+
+   /**
+    * os cabeçalhos precisam sair antes do corpo: a resposta já está confirmada quando o filtro retoma o controle.
+    * A contagem é a do momento em que o corpo começa a ser escrito; a verificação do orçamento usa a final.
+    */
+   private static class RespostaComCabecalhos extends HttpServletResponseWrapper {
+
+      private final ConsultasRequisicao consultas;
+      private boolean escritos;
+
+      private RespostaComCabecalhos(HttpServletResponse response, ConsultasRequisicao consultas) {
+         super(response);
+         this.consultas = consultas;
+      }
+
+      private void escreverCabecalhos() {
+         if (escritos || isCommitted()) {
+            return;
+         }
+         escritos = true;
+         setHeader(CABECALHO_CONSULTAS, String.valueOf(consultas.getQuantidade()));
+         setHeader(CABECALHO_TEMPO, String.valueOf(consultas.getTempoMillis()));
+      }
+
+      @Override
+      public ServletOutputStream getOutputStream() throws IOException {
+         escreverCabecalhos();
+         return super.getOutputStream();
+      }
+
+      @Override
+      public PrintWriter getWriter() throws IOException {
+         escreverCabecalhos();
+         return super.getWriter();
+      }
+
+      @Override
+      public void flushBuffer() throws IOException {
+         escreverCabecalhos();
+         super.flushBuffer();
+      }
+
+      @Override
+      public void sendError(int sc, String msg) throws IOException {
+         escreverCabecalhos();
+         super.sendError(sc, msg);
+      }
+
+      @Override
+      public void sendError(int sc) throws IOException {
+         escreverCabecalhos();
+         super.sendError(sc);
+      }
+
+      @Override
+      public void sendRedirect(String location) throws IOException {
+         escreverCabecalhos();
+         super.sendRedirect(location);
+      }
+   }
+}
@@ -0,0 +1,21 @@
+package com.esoares.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroItemDTO {
+
+   /**
+    * posição do item na lista enviada, a partir de zero, ou o número da linha no arquivo importado.
+    */
+   private Integer indice;
+
+   private String mensagem;
+
+}
@@ -0,0 +1,30 @@
+package com.esoares.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * progresso de uma importação; a resposta traz um destes por lote gravado, o último com {@code concluida}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportacaoDTO {
+
+   private Long lidas;
+   private Long importadas;
+   private Long duplicadas;
+   private Long rejeitadas;
+   private Boolean concluida;
+
+   /**
+    * primeiros erros, com o número da linha (CSV) ou da movimentação (OFX) em {@code indice}.
+    */
+   private List<ErroItemDTO> erros;
+
+}
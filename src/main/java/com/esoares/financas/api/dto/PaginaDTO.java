@@ -0,0 +1,27 @@
+package com.esoares.financas.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDTO<T> {
+
+   private List<T> itens;
+
+   /**
+    * id a ser enviado no parâmetro "after" para obter a próxima página, nulo quando não há mais itens.
+    */
+   private Long proximo;
+
+   @JsonInclude(JsonInclude.Include.NON_NULL)
+   private Long total;
+
+}
@@ -0,0 +1,25 @@
+package com.esoares.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoLoteDTO {
+
+   private Integer quantidadeSalva;
+
+   /**
+    * ids gerados, na ordem dos itens gravados.
+    */
+   private List<Long> ids;
+
+   private List<ErroItemDTO> erros;
+
+}
@@ -0,0 +1,23 @@
+package com.esoares.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalDTO {
+
+   private Integer ano;
+   private Integer mes;
+   private String tipo;
+   private String status;
+   private BigDecimal total;
+   private Long quantidade;
+
+}
@@ -0,0 +1,28 @@
+package com.esoares.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDTO {
+
+   /**
+    * receitas menos despesas efetivadas, o mesmo valor do endpoint sem detalhamento.
+    */
+   private BigDecimal saldo;
+
+   private BigDecimal pendente;
+
+   /**
+    * saldo considerando também os lançamentos pendentes.
+    */
+   private BigDecimal projetado;
+
+}
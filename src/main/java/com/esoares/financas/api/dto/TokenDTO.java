@@ -13,5 +13,6 @@ public class TokenDTO {
 
    private String nome;
    private String token;
+   private String refreshToken;
 
 }
@@ -0,0 +1,95 @@
+package com.esoares.financas.api.exportacao;
+
+import com.esoares.financas.api.dto.LancamentoDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.function.Consumer;
+
+/**
+ * formatos aceitos pelo endpoint de exportação. Cada lançamento é escrito assim que é lido do banco,
+ * sem acumular a resposta em memória.
+ */
+public enum FormatoExportacao {
+
+   NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson") {
+      @Override
+      public Consumer<LancamentoDTO> escritor(Writer writer, ObjectMapper mapper) {
+         ObjectWriter objectWriter = mapper.writerFor(LancamentoDTO.class)
+                 .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+         return dto -> {
+            try {
+               objectWriter.writeValue(writer, dto);
+               writer.write('\n');
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         };
+      }
+   },
+
+   CSV(MediaType.parseMediaType("text/csv"), "csv") {
+      @Override
+      public Consumer<LancamentoDTO> escritor(Writer writer, ObjectMapper mapper) throws IOException {
+         writer.write("id;descricao;mes;ano;valor;usuario;tipo;status\n");
+         return dto -> {
+            try {
+               writer.write(String.valueOf(dto.getId()));
+               writer.write(';');
+               writer.write(escaparCsv(dto.getDescricao()));
+               writer.write(';');
+               writer.write(String.valueOf(dto.getMes()));
+               writer.write(';');
+               writer.write(String.valueOf(dto.getAno()));
+               writer.write(';');
+               writer.write(dto.getValor() == null ? "" : dto.getValor().toPlainString());
+               writer.write(';');
+               writer.write(String.valueOf(dto.getUsuario()));
+               writer.write(';');
+               writer.write(dto.getTipo() == null ? "" : dto.getTipo());
+               writer.write(';');
+               writer.write(dto.getStatus() == null ? "" : dto.getStatus());
+               writer.write('\n');
+            } catch (IOException e) {
+               throw new UncheckedIOException(e);
+            }
+         };
+      }
+   };
+
+   private final MediaType mediaType;
+   private final String extensao;
+
+   FormatoExportacao(MediaType mediaType, String extensao) {
+      this.mediaType = mediaType;
+      this.extensao = extensao;
+   }
+
+   public MediaType getMediaType() {
+      return mediaType;
+   }
+
+   public String getExtensao() {
+      return extensao;
+   }
+
+   /**
+    * prepara o writer (ex.: cabeçalho do csv) e devolve a função que escreve um lançamento por linha.
+    */
+   public abstract Consumer<LancamentoDTO> escritor(Writer writer, ObjectMapper mapper) throws IOException;
+
+   static String escaparCsv(String valor) {
+      if (valor == null) {
+         return "";
+      }
+      if (valor.indexOf(';') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+         return valor;
+      }
+      return '"' + valor.replace("\"", "\"\"") + '"';
+   }
+}
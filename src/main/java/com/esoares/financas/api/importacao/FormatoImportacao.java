@@ -0,0 +1,65 @@
+package com.esoares.financas.api.importacao;
+
+import com.esoares.financas.service.LinhaExtrato;
+
+import java.io.BufferedReader;
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * formatos de extrato aceitos pela importação. Cada leitor devolve uma movimentação por vez, lida do arquivo
+ * sob demanda, sem carregar o arquivo em memória.
+ */
+public enum FormatoImportacao {
+
+   /**
+    * data;descricao;valor, com cabeçalho opcional; aceita também vírgula como separador.
+    */
+   CSV("csv") {
+      @Override
+      public Iterator<LinhaExtrato> leitor(BufferedReader reader) {
+         return new LeitorCsv(reader);
+      }
+   },
+
+   OFX("ofx") {
+      @Override
+      public Iterator<LinhaExtrato> leitor(BufferedReader reader) {
+         return new LeitorOfx(reader);
+      }
+   };
+
+   private final String extensao;
+
+   FormatoImportacao(String extensao) {
+      this.extensao = extensao;
+   }
+
+   public abstract Iterator<LinhaExtrato> leitor(BufferedReader reader);
+
+   public static Optional<FormatoImportacao> doArquivo(String nomeArquivo) {
+      if (nomeArquivo == null) {
+         return Optional.empty();
+      }
+      String nome = nomeArquivo.toLowerCase(Locale.ROOT);
+      for (FormatoImportacao formato : values()) {
+         if (nome.endsWith("." + formato.extensao)) {
+            return Optional.of(formato);
+         }
+      }
+      return Optional.empty();
+   }
+
+   /**
+    * aceita 1234.56, -1234.56, 1.234,56 e R$ 1.234,56.
+    */
+   static BigDecimal converterValor(String texto) {
+      String valor = texto.replace("R$", "").replace(" ", "").trim();
+      if (valor.indexOf(',') >= 0) {
+         valor = valor.replace(".", "").replace(',', '.');
+      }
+      return new BigDecimal(valor);
+   }
+}
@@ -0,0 +1,120 @@
+package com.esoares.financas.api.importacao;
+
+import com.esoares.financas.service.LinhaExtrato;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * lê uma linha do arquivo por chamada a {@link #next()}. Campos entre aspas podem conter o separador,
+ * mas não quebras de linha.
+ */
+class LeitorCsv implements Iterator<LinhaExtrato> {
+
+   private static final DateTimeFormatter DATA_BRASILEIRA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+   private final BufferedReader reader;
+   private long numero;
+   private String proxima;
+   private char separador;
+
+   LeitorCsv(BufferedReader reader) {
+      this.reader = reader;
+      avancar();
+      if (proxima != null) {
+         separador = proxima.indexOf(';') >= 0 ? ';' : ',';
+         List<String> campos = dividir(proxima);
+         if (converterData(campos.get(0)) == null) {
+            // primeira linha sem data: cabeçalho
+            avancar();
+         }
+      }
+   }
+
+   @Override
+   public boolean hasNext() {
+      return proxima != null;
+   }
+
+   @Override
+   public LinhaExtrato next() {
+      if (proxima == null) {
+         throw new NoSuchElementException();
+      }
+      String linha = proxima;
+      long numeroLinha = numero;
+      avancar();
+      return interpretar(numeroLinha, linha);
+   }
+
+   private LinhaExtrato interpretar(long numeroLinha, String linha) {
+      List<String> campos = dividir(linha);
+      if (campos.size() < 3) {
+         return LinhaExtrato.invalida(numeroLinha, "Linha com menos de 3 campos (data, descrição e valor).");
+      }
+      LocalDate data = converterData(campos.get(0));
+      if (data == null) {
+         return LinhaExtrato.invalida(numeroLinha, "Data inválida: " + campos.get(0));
+      }
+      BigDecimal valor;
+      try {
+         valor = FormatoImportacao.converterValor(campos.get(2));
+      } catch (NumberFormatException e) {
+         return LinhaExtrato.invalida(numeroLinha, "Valor inválido: " + campos.get(2));
+      }
+      return LinhaExtrato.valida(numeroLinha, data, campos.get(1).trim(), valor);
+   }
+
+   private void avancar() {
+      try {
+         do {
+            proxima = reader.readLine();
+            numero++;
+         } while (proxima != null && proxima.isBlank());
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private List<String> dividir(String linha) {
+      List<String> campos = new ArrayList<>(3);
+      StringBuilder campo = new StringBuilder();
+      boolean entreAspas = false;
+      for (int i = 0; i < linha.length(); i++) {
+         char c = linha.charAt(i);
+         if (c == '"') {
+            if (entreAspas && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+               campo.append('"');
+               i++;
+            } else {
+               entreAspas = !entreAspas;
+            }
+         } else if (c == separador && !entreAspas) {
+            campos.add(campo.toString());
+            campo.setLength(0);
+         } else {
+            campo.append(c);
+         }
+      }
+      campos.add(campo.toString());
+      return campos;
+   }
+
+   private static LocalDate converterData(String texto) {
+      String data = texto.trim();
+      try {
+         return data.indexOf('/') >= 0 ? LocalDate.parse(data, DATA_BRASILEIRA) : LocalDate.parse(data);
+      } catch (DateTimeParseException e) {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,142 @@
+package com.esoares.financas.api.importacao;
+
+import com.esoares.financas.service.LinhaExtrato;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * lê as movimentações ({@code <STMTTRN>}) de um OFX, tanto no formato SGML (1.x, sem tags de fechamento)
+ * quanto no XML (2.x). O arquivo é percorrido caractere a caractere; só a movimentação corrente fica em memória.
+ */
+class LeitorOfx implements Iterator<LinhaExtrato> {
+
+   private static final int TAMANHO_MAXIMO_VALOR = 1000;
+
+   private final BufferedReader reader;
+   private long numero;
+   private int atual;
+   private LinhaExtrato proxima;
+
+   LeitorOfx(BufferedReader reader) {
+      this.reader = reader;
+      this.atual = ler();
+      this.proxima = lerMovimentacao();
+   }
+
+   @Override
+   public boolean hasNext() {
+      return proxima != null;
+   }
+
+   @Override
+   public LinhaExtrato next() {
+      if (proxima == null) {
+         throw new NoSuchElementException();
+      }
+      LinhaExtrato linha = proxima;
+      proxima = lerMovimentacao();
+      return linha;
+   }
+
+   private LinhaExtrato lerMovimentacao() {
+      String tag;
+      do {
+         tag = lerTag();
+         if (tag == null) {
+            return null;
+         }
+      } while (!tag.equals("STMTTRN"));
+
+      numero++;
+      String data = null;
+      String valor = null;
+      String memo = null;
+      String nome = null;
+      while ((tag = lerTag()) != null && !tag.equals("/STMTTRN")) {
+         switch (tag) {
+            case "DTPOSTED" -> data = lerValor();
+            case "TRNAMT" -> valor = lerValor();
+            case "MEMO" -> memo = lerValor();
+            case "NAME" -> nome = lerValor();
+            default -> {
+               // demais campos não são usados
+            }
+         }
+      }
+
+      if (data == null || data.length() < 8) {
+         return LinhaExtrato.invalida(numero, "Movimentação sem data (DTPOSTED).");
+      }
+      LocalDate dataMovimentacao;
+      try {
+         dataMovimentacao = LocalDate.parse(data.substring(0, 8), DateTimeFormatter.BASIC_ISO_DATE);
+      } catch (DateTimeParseException e) {
+         return LinhaExtrato.invalida(numero, "Data inválida: " + data);
+      }
+      if (valor == null) {
+         return LinhaExtrato.invalida(numero, "Movimentação sem valor (TRNAMT).");
+      }
+      BigDecimal valorMovimentacao;
+      try {
+         valorMovimentacao = FormatoImportacao.converterValor(valor);
+      } catch (NumberFormatException e) {
+         return LinhaExtrato.invalida(numero, "Valor inválido: " + valor);
+      }
+      String descricao = memo != null && !memo.isBlank() ? memo : nome;
+      return LinhaExtrato.valida(numero, dataMovimentacao, descricao, valorMovimentacao);
+   }
+
+   /**
+    * avança até a próxima tag e devolve o nome em maiúsculas, com a barra nas de fechamento.
+    */
+   private String lerTag() {
+      while (atual != -1 && atual != '<') {
+         atual = ler();
+      }
+      if (atual == -1) {
+         return null;
+      }
+      StringBuilder tag = new StringBuilder();
+      atual = ler();
+      while (atual != -1 && atual != '>' && tag.length() < TAMANHO_MAXIMO_VALOR) {
+         tag.append((char) atual);
+         atual = ler();
+      }
+      atual = ler();
+      return tag.toString().trim().toUpperCase(Locale.ROOT);
+   }
+
+   /**
+    * texto até a próxima tag, que fica para a próxima leitura.
+    */
+   private String lerValor() {
+      StringBuilder valor = new StringBuilder();
+      while (atual != -1 && atual != '<') {
+         if (valor.length() < TAMANHO_MAXIMO_VALOR) {
+            valor.append((char) atual);
+         }
+         atual = ler();
+      }
+      return valor.toString().trim()
+              .replace("&lt;", "<")
+              .replace("&gt;", ">")
+              .replace("&amp;", "&");
+   }
+
+   private int ler() {
+      try {
+         return reader.read();
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
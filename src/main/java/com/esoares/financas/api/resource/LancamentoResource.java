@@ -1,22 +1,60 @@
 package com.esoares.financas.api.resource;
 
 import com.esoares.financas.api.dto.AtualizaStatusDTO;
+import com.esoares.financas.api.dto.AtualizaStatusLoteDTO;
+import com.esoares.financas.api.dto.ErroItemDTO;
+import com.esoares.financas.api.dto.ImportacaoDTO;
 import com.esoares.financas.api.dto.LancamentoDTO;
+import com.esoares.financas.api.dto.PaginaDTO;
+import com.esoares.financas.api.dto.ResultadoLoteDTO;
+import com.esoares.financas.api.exportacao.FormatoExportacao;
+import com.esoares.financas.api.importacao.FormatoImportacao;
+import com.esoares.financas.exception.ConflitoVersaoException;
 import com.esoares.financas.exception.RegraNegocioException;
 import com.esoares.financas.model.entity.Lancamento;
 import com.esoares.financas.model.entity.Usuario;
 import com.esoares.financas.model.enums.StatusLancamento;
 import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.repository.LancamentoFiltro;
+import com.esoares.financas.service.ImportacaoService;
 import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.ProgressoImportacao;
+import com.esoares.financas.service.ResultadoAtualizacaoStatus;
+import com.esoares.financas.service.ResultadoLote;
 import com.esoares.financas.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Window;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 
 @RestController
 @RequestMapping("/api/lancamentos")
@@ -25,6 +63,12 @@ public class LancamentoResource {
 
    private final LancamentoService service;
    private final UsuarioService usuarioService;
+   private final ImportacaoService importacaoService;
+   private final ObjectMapper objectMapper;
+
+   static final int LIMITE_PADRAO = 50;
+   static final int LIMITE_MAXIMO = 1000;
+   static final int LIMITE_LOTE = 5000;
 
    @GetMapping
    public ResponseEntity buscar(
@@ -32,43 +76,142 @@ public class LancamentoResource {
            @RequestParam(value = "mes", required = false) Integer mes,
            @RequestParam(value = "ano", required = false) Integer ano,
            @RequestParam(value = "tipo", required = false) TipoLancamento tipo,
-           @RequestParam(value = "usuario") Long idUsuario) {
-
-      Lancamento lancamentoFiltro = new Lancamento();
-      lancamentoFiltro.setDescricao(descricao);
-      lancamentoFiltro.setMes(mes);
-      lancamentoFiltro.setAno(ano);
-      lancamentoFiltro.setTipo(tipo);
+           @RequestParam(value = "status", required = false) StatusLancamento status,
+           @RequestParam(value = "valorMinimo", required = false) BigDecimal valorMinimo,
+           @RequestParam(value = "valorMaximo", required = false) BigDecimal valorMaximo,
+           @RequestParam(value = "dataInicial", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicial,
+           @RequestParam(value = "dataFinal", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFinal,
+           @RequestParam(value = "usuario") Long idUsuario,
+           @RequestParam(value = "after", required = false) Long apos,
+           @RequestParam(value = "limit", required = false) Integer limite,
+           @RequestParam(value = "total", defaultValue = "false") boolean total) {
 
       Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
       if (usuario.isEmpty()) {
          return ResponseEntity.badRequest().body("Não foi possível realizar a consulta. " +
                  "Usuário não encontrado para o ID informado..");
-      } else {
-         lancamentoFiltro.setUsuario(usuario.get());
       }
 
-      List<Lancamento> lancamentos = service.buscar(lancamentoFiltro);
-      return ResponseEntity.ok(lancamentos);
+      LancamentoFiltro lancamentoFiltro = LancamentoFiltro.builder()
+              .idUsuario(idUsuario)
+              .descricao(descricao)
+              .mes(mes)
+              .ano(ano)
+              .tipo(tipo)
+              .status(status)
+              .valorMinimo(valorMinimo)
+              .valorMaximo(valorMaximo)
+              .dataCadastroInicial(dataInicial)
+              .dataCadastroFinal(dataFinal)
+              .build();
+
+      // sem cursor nem limite mantém o contrato antigo (lista completa)
+      if (apos == null && limite == null) {
+         List<LancamentoDTO> lancamentos = service.buscar(lancamentoFiltro).stream().map(this::converter).toList();
+         return ResponseEntity.ok(lancamentos);
+      }
+
+      int tamanhoPagina = limite == null ? LIMITE_PADRAO : limite;
+      if (tamanhoPagina < 1 || tamanhoPagina > LIMITE_MAXIMO) {
+         return ResponseEntity.badRequest().body("Informe um limite entre 1 e " + LIMITE_MAXIMO + ".");
+      }
+
+      Window<LancamentoProjecao> janela = service.buscar(lancamentoFiltro, apos, tamanhoPagina);
+      List<LancamentoDTO> itens = janela.getContent().stream().map(this::converter).toList();
+      PaginaDTO<LancamentoDTO> pagina = PaginaDTO.<LancamentoDTO>builder()
+              .itens(itens)
+              .proximo(janela.hasNext() ? itens.get(itens.size() - 1).getId() : null)
+              .total(total ? service.contar(lancamentoFiltro) : null)
+              .build();
+      return ResponseEntity.ok(pagina);
+   }
+
+   @GetMapping("/export")
+   public ResponseEntity exportar(
+           @RequestParam(value = "usuario") Long idUsuario,
+           @RequestParam(value = "formato", defaultValue = "NDJSON") String formato) {
+
+      FormatoExportacao formatoExportacao;
+      try {
+         formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+      } catch (IllegalArgumentException e) {
+         return ResponseEntity.badRequest().body("Formato de exportação inválido, use NDJSON ou CSV.");
+      }
+
+      if (usuarioService.obterPorId(idUsuario).isEmpty()) {
+         return ResponseEntity.badRequest().body("Não foi possível realizar a exportação. " +
+                 "Usuário não encontrado para o ID informado.");
+      }
+
+      StreamingResponseBody corpo = saida -> {
+         Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+         Consumer<LancamentoDTO> escritor = formatoExportacao.escritor(writer, objectMapper);
+         service.exportar(idUsuario, lancamento -> escritor.accept(converter(lancamento)));
+         writer.flush();
+      };
+
+      return ResponseEntity.ok()
+              .contentType(formatoExportacao.getMediaType())
+              .header(HttpHeaders.CONTENT_DISPOSITION,
+                      "attachment; filename=\"lancamentos." + formatoExportacao.getExtensao() + "\"")
+              .body(corpo);
    }
 
    @PutMapping("{id}/atualiza-status")
-   public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
-      return service.obterPorId(id).map(entity -> {
-         StatusLancamento statusSelecionado = null;
-         try {
-            statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-         }
-         try {
-            entity.setStatus(statusSelecionado);
-            service.atualizar(entity);
-            return ResponseEntity.ok(entity);
-         } catch (RegraNegocioException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+   public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+      StatusLancamento statusSelecionado;
+      Long versao;
+      try {
+         statusSelecionado = StatusLancamento.valueOf(String.valueOf(dto.getStatus()));
+      } catch (IllegalArgumentException e) {
+         return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+      }
+      try {
+         versao = versaoEsperada(ifMatch, null);
+      } catch (IllegalArgumentException e) {
+         return ResponseEntity.badRequest().body("Cabeçalho If-Match inválido, envie o ETag recebido na consulta.");
+      }
+      if (versao == null) {
+         Optional<LancamentoProjecao> atual = service.obterProjecaoPorId(id);
+         if (atual.isEmpty()) {
+            return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST);
          }
-      }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+         versao = atual.get().getVersao();
+      }
+
+      try {
+         LancamentoProjecao atualizado = service.atualizarStatus(id, statusSelecionado, versao);
+         return ResponseEntity.ok().eTag(String.valueOf(atualizado.getVersao())).body(converter(atualizado));
+      } catch (ConflitoVersaoException e) {
+         return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+      } catch (RegraNegocioException e) {
+         return ResponseEntity.badRequest().body(e.getMessage());
+      }
+   }
+
+   /**
+    * muda o status de vários lançamentos do usuário de uma vez e devolve o resultado de cada id.
+    */
+   @PutMapping("/atualiza-status")
+   public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto) {
+      StatusLancamento statusSelecionado;
+      try {
+         statusSelecionado = StatusLancamento.valueOf(String.valueOf(dto.getStatus()));
+      } catch (IllegalArgumentException e) {
+         return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos, envie um status válido.");
+      }
+      if (dto.getIds() == null || dto.getIds().isEmpty() || dto.getIds().size() > LIMITE_LOTE) {
+         return ResponseEntity.badRequest().body("Informe entre 1 e " + LIMITE_LOTE + " lançamentos.");
+      }
+      if (dto.getUsuario() == null || usuarioService.obterPorId(dto.getUsuario()).isEmpty()) {
+         return ResponseEntity.badRequest().body("Não foi possível atualizar o status dos lançamentos. " +
+                 "Usuário não encontrado para o Id informado.");
+      }
+
+      Map<Long, ResultadoAtualizacaoStatus> resultado =
+              service.atualizarStatusEmLote(dto.getUsuario(), dto.getIds(), statusSelecionado);
+      return ResponseEntity.ok(resultado);
    }
 
    @PostMapping
@@ -77,7 +220,7 @@ public class LancamentoResource {
          Lancamento entidade = converter(dto);
          entidade.setDataCadastro(LocalDate.now());
          entidade = service.salvar(entidade);
-         return new ResponseEntity(entidade, HttpStatus.CREATED);
+         return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
       } catch (RegraNegocioException e) {
          return ResponseEntity.badRequest().body(e.getMessage());
       }
@@ -86,12 +229,12 @@ public class LancamentoResource {
 
    @GetMapping("{id}")
    public ResponseEntity obterLancamento(@PathVariable("id") Long id) {
-      return service.obterPorId(id)
-              .map(lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+      return service.obterProjecaoPorId(id)
+              .map(lancamento -> ResponseEntity.ok().eTag(String.valueOf(lancamento.getVersao())).body(converter(lancamento)))
               .orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
    }
 
-   private LancamentoDTO converter(Lancamento lancamento) {
+   LancamentoDTO converter(Lancamento lancamento) {
       return LancamentoDTO.builder()
               .id(lancamento.getId())
               .descricao(lancamento.getDescricao())
@@ -99,23 +242,183 @@ public class LancamentoResource {
               .mes(lancamento.getMes())
               .ano(lancamento.getAno())
               .usuario(lancamento.getUsuario().getId())
-              .tipo(lancamento.getTipo().name())
-              .status(lancamento.getStatus().name())
+              .tipo(lancamento.getTipo() == null ? null : lancamento.getTipo().name())
+              .status(lancamento.getStatus() == null ? null : lancamento.getStatus().name())
+              .versao(lancamento.getVersao())
               .build();
    }
 
-   @PutMapping("{id}")
-   public ResponseEntity atualizar(@PathVariable Long id, @RequestBody LancamentoDTO dto) {
-      return service.obterPorId(id).map(entity -> {
+   LancamentoDTO converter(LancamentoProjecao lancamento) {
+      return LancamentoDTO.builder()
+              .id(lancamento.getId())
+              .descricao(lancamento.getDescricao())
+              .valor(lancamento.getValor())
+              .mes(lancamento.getMes())
+              .ano(lancamento.getAno())
+              .usuario(lancamento.getIdUsuario())
+              .tipo(lancamento.getTipo() == null ? null : lancamento.getTipo().name())
+              .status(lancamento.getStatus() == null ? null : lancamento.getStatus().name())
+              .versao(lancamento.getVersao())
+              .build();
+   }
+
+   @PostMapping("/lote")
+   public ResponseEntity salvarEmLote(@RequestBody List<LancamentoDTO> dtos) {
+      if (dtos.isEmpty() || dtos.size() > LIMITE_LOTE) {
+         return ResponseEntity.badRequest().body("Informe entre 1 e " + LIMITE_LOTE + " lançamentos.");
+      }
+
+      // cada usuário é consultado uma vez por lote, não uma vez por item
+      Map<Long, Optional<Usuario>> usuarios = new HashMap<>();
+      Map<Integer, String> erros = new TreeMap<>();
+      List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+      List<Integer> posicoes = new ArrayList<>(dtos.size());
+      for (int i = 0; i < dtos.size(); i++) {
+         LancamentoDTO dto = dtos.get(i);
          try {
-            Lancamento lancamento = converter(dto);
-            lancamento.setId(entity.getId());
-            service.atualizar(lancamento);
-            return ResponseEntity.ok(lancamento);
+            Optional<Usuario> usuario = dto.getUsuario() == null
+                    ? Optional.empty()
+                    : usuarios.computeIfAbsent(dto.getUsuario(), usuarioService::obterPorId);
+            Lancamento lancamento = converter(dto, usuario.orElseThrow(
+                    () -> new RegraNegocioException("Usuário não encontrado para o ID informado.")));
+            lancamento.setDataCadastro(LocalDate.now());
+            lancamentos.add(lancamento);
+            posicoes.add(i);
          } catch (RegraNegocioException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            erros.put(i, e.getMessage());
+         } catch (IllegalArgumentException e) {
+            erros.put(i, "Informe um Tipo e um Status de lançamento válidos.");
          }
-      }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+      }
+
+      ResultadoLote resultado = service.salvarEmLote(lancamentos);
+      resultado.getErros().forEach((indice, mensagem) -> erros.put(posicoes.get(indice), mensagem));
+
+      ResultadoLoteDTO dto = ResultadoLoteDTO.builder()
+              .quantidadeSalva(resultado.getSalvos().size())
+              .ids(resultado.getSalvos().stream().map(Lancamento::getId).toList())
+              .erros(erros.entrySet().stream()
+                      .map(erro -> new ErroItemDTO(erro.getKey(), erro.getValue()))
+                      .toList())
+              .build();
+      HttpStatus status = resultado.getSalvos().isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED;
+      return new ResponseEntity(dto, status);
+   }
+
+   @PostMapping(value = "/importacao", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+   public ResponseEntity importar(
+           @RequestParam(value = "usuario") Long idUsuario,
+           @RequestParam(value = "arquivo") MultipartFile arquivo,
+           @RequestParam(value = "formato", required = false) String formato,
+           @RequestParam(value = "charset", defaultValue = "UTF-8") String charset) {
+
+      Optional<FormatoImportacao> formatoImportacao;
+      try {
+         formatoImportacao = formato == null
+                 ? FormatoImportacao.doArquivo(arquivo.getOriginalFilename())
+                 : Optional.of(FormatoImportacao.valueOf(formato.toUpperCase()));
+      } catch (IllegalArgumentException e) {
+         formatoImportacao = Optional.empty();
+      }
+      if (formatoImportacao.isEmpty()) {
+         return ResponseEntity.badRequest().body("Formato de importação inválido, use CSV ou OFX.");
+      }
+      if (!Charset.isSupported(charset)) {
+         return ResponseEntity.badRequest().body("Charset inválido: " + charset);
+      }
+
+      Optional<Usuario> usuario = usuarioService.obterPorId(idUsuario);
+      if (usuario.isEmpty()) {
+         return ResponseEntity.badRequest().body("Não foi possível realizar a importação. " +
+                 "Usuário não encontrado para o ID informado.");
+      }
+
+      // o arquivo é lido conforme os lotes são gravados e cada lote devolve uma linha de progresso
+      FormatoImportacao formatoArquivo = formatoImportacao.get();
+      ObjectWriter progressoWriter = objectMapper.writerFor(ImportacaoDTO.class)
+              .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      StreamingResponseBody corpo = saida -> {
+         Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+         try (BufferedReader reader = new BufferedReader(new InputStreamReader(arquivo.getInputStream(), charset))) {
+            importacaoService.importar(usuario.get(), formatoArquivo.leitor(reader), progresso -> {
+               try {
+                  progressoWriter.writeValue(writer, converter(progresso));
+                  writer.write('\n');
+                  writer.flush();
+               } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+               }
+            });
+         }
+      };
+
+      return ResponseEntity.ok()
+              .contentType(MediaType.parseMediaType("application/x-ndjson"))
+              .body(corpo);
+   }
+
+   private ImportacaoDTO converter(ProgressoImportacao progresso) {
+      return ImportacaoDTO.builder()
+              .lidas(progresso.getLidas())
+              .importadas(progresso.getImportadas())
+              .duplicadas(progresso.getDuplicadas())
+              .rejeitadas(progresso.getRejeitadas())
+              .concluida(progresso.isConcluida())
+              .erros(progresso.getErros().entrySet().stream()
+                      .map(erro -> new ErroItemDTO(erro.getKey().intValue(), erro.getValue()))
+                      .toList())
+              .build();
+   }
+
+   /**
+    * a versão esperada vem do If-Match ou do campo versao do corpo; sem nenhuma das duas vale a versão atual,
+    * o que mantém o comportamento de quem ainda não envia versão (a última gravação vence).
+    */
+   @PutMapping("{id}")
+   public ResponseEntity atualizar(@PathVariable Long id, @RequestBody LancamentoDTO dto,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+      Long versao;
+      try {
+         versao = versaoEsperada(ifMatch, dto.getVersao());
+      } catch (IllegalArgumentException e) {
+         return ResponseEntity.badRequest().body("Cabeçalho If-Match inválido, envie o ETag recebido na consulta.");
+      }
+      if (versao == null) {
+         Optional<LancamentoProjecao> atual = service.obterProjecaoPorId(id);
+         if (atual.isEmpty()) {
+            return new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST);
+         }
+         versao = atual.get().getVersao();
+      }
+
+      try {
+         Lancamento lancamento = converter(dto);
+         lancamento.setId(id);
+         lancamento.setVersao(versao);
+         service.atualizar(lancamento);
+         return ResponseEntity.ok().eTag(String.valueOf(lancamento.getVersao())).body(converter(lancamento));
+      } catch (ConflitoVersaoException e) {
+         return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+      } catch (RegraNegocioException e) {
+         return ResponseEntity.badRequest().body(e.getMessage());
+      }
+   }
+
+   /**
+    * aceita o ETag como devolvido ("3"), na forma fraca (W/"3") ou sem aspas; "*" equivale a não informar.
+    */
+   static Long versaoEsperada(String ifMatch, Long versaoDoCorpo) {
+      if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+         return versaoDoCorpo;
+      }
+      String valor = ifMatch.trim();
+      if (valor.startsWith("W/")) {
+         valor = valor.substring(2);
+      }
+      if (valor.length() >= 2 && valor.startsWith("\"") && valor.endsWith("\"")) {
+         valor = valor.substring(1, valor.length() - 1);
+      }
+      return Long.valueOf(valor);
    }
 
    @DeleteMapping("{id}")
@@ -128,17 +431,21 @@ public class LancamentoResource {
 
 
    private Lancamento converter(LancamentoDTO dto) {
+      Usuario usuario = usuarioService.obterPorId(dto.getUsuario())
+              .orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o ID informado."));
+      return converter(dto, usuario);
+   }
+
+   /**
+    * o id do corpo é ignorado: na inclusão vem da sequência e na atualização, do caminho.
+    */
+   Lancamento converter(LancamentoDTO dto, Usuario usuario) {
       Lancamento lancamento = new Lancamento();
 
-      lancamento.setId(dto.getId());
       lancamento.setDescricao(dto.getDescricao());
       lancamento.setAno(dto.getAno());
       lancamento.setMes(dto.getMes());
       lancamento.setValor(dto.getValor());
-
-      Usuario usuario = usuarioService.obterPorId(dto.getUsuario())
-              .orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o ID informado."));
-
       lancamento.setUsuario(usuario);
       if (dto.getTipo() != null) {
          lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
@@ -1,19 +1,33 @@
 package com.esoares.financas.api.resource;
 
+import com.esoares.financas.api.dto.RefreshTokenDTO;
+import com.esoares.financas.api.dto.ResumoMensalDTO;
+import com.esoares.financas.api.dto.SaldoDTO;
 import com.esoares.financas.api.dto.TokenDTO;
 import com.esoares.financas.api.dto.UsuarioDTO;
 import com.esoares.financas.exception.ErroAutenticacao;
 import com.esoares.financas.exception.RegraNegocioException;
+import com.esoares.financas.exception.SobrecargaException;
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.entity.SaldoUsuario;
 import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
 import com.esoares.financas.service.JwtService;
 import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.RefreshTokenService;
+import com.esoares.financas.service.Renovacao;
+import com.esoares.financas.service.ResumoMensalService;
+import com.esoares.financas.service.SaldoUsuarioService;
 import com.esoares.financas.service.UsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -24,6 +38,9 @@ public class UsuarioResource {
    private final UsuarioService service;
    private final LancamentoService lancamentoService;
    private final JwtService jwtService;
+   private final SaldoUsuarioService saldoUsuarioService;
+   private final ResumoMensalService resumoMensalService;
+   private final RefreshTokenService refreshTokenService;
 
    @PostMapping
    public ResponseEntity salvar(@RequestBody UsuarioDTO dto) {
@@ -35,6 +52,8 @@ public class UsuarioResource {
          return new ResponseEntity(usuarioSalvo, HttpStatus.CREATED);
       } catch (RegraNegocioException e) {
          return ResponseEntity.badRequest().body(e.getMessage());
+      } catch (SobrecargaException e) {
+         return sobrecarga(e);
       }
 
    }
@@ -43,23 +62,130 @@ public class UsuarioResource {
    public ResponseEntity<?> autenticar(@RequestBody UsuarioDTO dto) {
       try {
          Usuario usurioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-         TokenDTO tokenDTO = new TokenDTO(usurioAutenticado.getNome(), jwtService.generateToken(usurioAutenticado));
+         TokenDTO tokenDTO = new TokenDTO(usurioAutenticado.getNome(), jwtService.generateToken(usurioAutenticado),
+                 refreshTokenService.emitir(usurioAutenticado));
 
 
          return ResponseEntity.ok(tokenDTO);
       } catch (ErroAutenticacao e) {
          return ResponseEntity.badRequest().body(e.getMessage());
+      } catch (SobrecargaException e) {
+         return sobrecarga(e);
       }
    }
 
+   private static ResponseEntity sobrecarga(SobrecargaException e) {
+      return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+              .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSegundos()))
+              .body(e.getMessage());
+   }
+
+   /**
+    * novo access token a partir do refresh token, sem passar pelo BCrypt; o refresh token é trocado a cada uso.
+    */
+   @PostMapping("/refresh")
+   public ResponseEntity renovar(@RequestBody RefreshTokenDTO dto) {
+      if (dto.getRefreshToken() == null || dto.getRefreshToken().isBlank()) {
+         return ResponseEntity.badRequest().body("Informe o refresh token.");
+      }
+      try {
+         Renovacao renovacao = refreshTokenService.renovar(dto.getRefreshToken());
+         Usuario usuario = renovacao.getUsuario();
+         return ResponseEntity.ok(new TokenDTO(usuario.getNome(), jwtService.generateToken(usuario),
+                 renovacao.getRefreshToken()));
+      } catch (ErroAutenticacao e) {
+         return new ResponseEntity(e.getMessage(), HttpStatus.UNAUTHORIZED);
+      }
+   }
+
+   /**
+    * revoga o token usado na requisição e, se enviado, o refresh token com toda a sua família;
+    * os demais tokens do usuário continuam válidos até expirar.
+    */
+   @PostMapping("/logout")
+   public ResponseEntity logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization,
+                                @RequestBody(required = false) RefreshTokenDTO dto) {
+      if (authorization.startsWith("Bearer")) {
+         jwtService.revogar(authorization.substring(7));
+      }
+      if (dto != null && dto.getRefreshToken() != null) {
+         refreshTokenService.revogar(dto.getRefreshToken());
+      }
+      return new ResponseEntity(HttpStatus.NO_CONTENT);
+   }
+
    @GetMapping("{id}/saldo")
-   public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+   public ResponseEntity obterSaldo(@PathVariable("id") Long id,
+                                    @RequestParam(value = "detalhado", defaultValue = "false") boolean detalhado) {
       Optional<Usuario> usuario = service.obterPorId(id);
       if (usuario.isEmpty()) {
          return new ResponseEntity(HttpStatus.NOT_FOUND);
       }
-      BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-      return ResponseEntity.ok(saldo);
+      if (!detalhado) {
+         BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
+         return ResponseEntity.ok(saldo);
+      }
+
+      Map<StatusLancamento, BigDecimal> saldos = lancamentoService.obterSaldoPorStatus(id);
+      BigDecimal efetivado = saldos.get(StatusLancamento.EFETIVADO);
+      BigDecimal pendente = saldos.get(StatusLancamento.PENDENTE);
+      SaldoDTO saldoDTO = SaldoDTO.builder()
+              .saldo(efetivado)
+              .pendente(pendente)
+              .projetado(efetivado.add(pendente))
+              .build();
+      return ResponseEntity.ok(saldoDTO);
+   }
+
+   @PostMapping("{id}/saldo/reconciliar")
+   public ResponseEntity reconciliarSaldo(@PathVariable("id") Long id) {
+      Optional<Usuario> usuario = service.obterPorId(id);
+      if (usuario.isEmpty()) {
+         return new ResponseEntity(HttpStatus.NOT_FOUND);
+      }
+
+      SaldoUsuario saldo = saldoUsuarioService.reconciliar(id);
+      SaldoDTO saldoDTO = SaldoDTO.builder()
+              .saldo(saldo.getSaldoEfetivado())
+              .pendente(saldo.getSaldoPendente())
+              .projetado(saldo.getSaldoEfetivado().add(saldo.getSaldoPendente()))
+              .build();
+      return ResponseEntity.ok(saldoDTO);
+   }
+
+   @PostMapping("{id}/resumo/reconstruir")
+   public ResponseEntity reconstruirResumo(@PathVariable("id") Long id) {
+      Optional<Usuario> usuario = service.obterPorId(id);
+      if (usuario.isEmpty()) {
+         return new ResponseEntity(HttpStatus.NOT_FOUND);
+      }
+
+      resumoMensalService.reconstruir(id);
+      return new ResponseEntity(HttpStatus.NO_CONTENT);
+   }
+
+   @GetMapping("{id}/resumo")
+   public ResponseEntity obterResumo(@PathVariable("id") Long id, @RequestParam("ano") Integer ano) {
+      Optional<Usuario> usuario = service.obterPorId(id);
+      if (usuario.isEmpty()) {
+         return new ResponseEntity(HttpStatus.NOT_FOUND);
+      }
+
+      List<ResumoMensalDTO> resumo = resumoMensalService.obterResumo(id, ano).stream()
+              .map(this::converter)
+              .toList();
+      return ResponseEntity.ok(resumo);
+   }
+
+   private ResumoMensalDTO converter(ResumoMensal resumo) {
+      return ResumoMensalDTO.builder()
+              .ano(resumo.getId().getAno())
+              .mes(resumo.getId().getMes())
+              .tipo(resumo.getId().getTipo().name())
+              .status(resumo.getId().getStatus().name())
+              .total(resumo.getTotal())
+              .quantidade(resumo.getQuantidade())
+              .build();
    }
 
 }
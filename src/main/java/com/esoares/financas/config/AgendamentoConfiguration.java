@@ -0,0 +1,13 @@
+package com.esoares.financas.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * liga os métodos @Scheduled; as tarefas são curtas e rodam no agendador padrão de uma thread.
+ */
+@Configuration
+@EnableScheduling
+public class AgendamentoConfiguration {
+
+}
@@ -0,0 +1,89 @@
+package com.esoares.financas.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+@EnableCaching
+@Configuration
+public class CacheConfiguration {
+
+   public static final String SALDOS = "saldos";
+
+   /**
+    * caches limitados do Caffeine; o proxy adia put e evict para depois do commit da transação corrente,
+    * então uma leitura concorrente nunca é invalidada antes de a escrita ficar visível.
+    * Os caches são assíncronos para que o carregamento de @Cacheable(sync = true) rode fora do lock do mapa:
+    * no cache síncrono a consulta ao banco acontece dentro de um bloco synchronized e prende a thread
+    * portadora quando a requisição roda em uma thread virtual.
+    */
+   @Bean
+   public CacheManager cacheManager(@Value("${cache.saldos.spec:maximumSize=10000,expireAfterWrite=10m,recordStats}") String saldos) {
+      CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+         @Override
+         protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+            return new CacheCarregadoNaChamada(name, cache);
+         }
+      };
+      // sem nomes dinâmicos: um nome de cache desconhecido é erro de configuração
+      cacheManager.setCacheNames(List.of());
+      cacheManager.registerCustomCache(SALDOS, Caffeine.from(saldos).buildAsync());
+      return new TransactionAwareCacheManagerProxy(cacheManager);
+   }
+
+   /**
+    * o get com carregamento do AsyncCache roda o carregador no executor do cache (ForkJoinPool), fora da transação
+    * de quem chamou: cada chamador esperaria segurando a própria conexão enquanto o carregador pede outra, e com
+    * o pool cheio nenhum dos dois anda. Aqui o primeiro chamador publica um futuro vazio e carrega na própria
+    * thread e transação; os concorrentes da mesma chave só esperam o futuro.
+    */
+   static class CacheCarregadoNaChamada extends CaffeineCache {
+
+      CacheCarregadoNaChamada(String name, AsyncCache<Object, Object> cache) {
+         super(name, cache, true);
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public <T> T get(Object key, Callable<T> valueLoader) {
+         // getIfPresent registra acerto ou falta nas estatísticas
+         CompletableFuture<Object> existente = getAsyncCache().getIfPresent(key);
+         CompletableFuture<Object> futuro = new CompletableFuture<>();
+         if (existente == null) {
+            existente = getAsyncCache().asMap().putIfAbsent(key, futuro);
+         }
+         if (existente != null) {
+            try {
+               return (T) fromStoreValue(existente.join());
+            } catch (CompletionException e) {
+               throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+         }
+
+         Object valor;
+         try {
+            valor = toStoreValue(valueLoader.call());
+         } catch (Throwable e) {
+            getAsyncCache().asMap().remove(key, futuro);
+            futuro.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+         }
+         futuro.complete(valor);
+         return (T) fromStoreValue(valor);
+      }
+   }
+
+}
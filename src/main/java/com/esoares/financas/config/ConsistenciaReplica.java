@@ -0,0 +1,95 @@
+package com.esoares.financas.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * decide se uma leitura pode ir para a réplica: não vai quando o usuário escreveu há menos que o atraso máximo
+ * (a escrita pode ainda não ter chegado lá) nem quando o atraso medido na réplica passa desse limite.
+ */
+class ConsistenciaReplica {
+
+   private static final Logger log = LoggerFactory.getLogger(ConsistenciaReplica.class);
+
+   private final DataSource replica;
+   private final String consultaAtraso;
+   private final Duration atrasoMaximo;
+   private final long intervaloNanos;
+
+   /**
+    * ids dos usuários com escrita confirmada dentro da janela; cada entrada vence junto com ela.
+    */
+   private final Cache<Long, Boolean> escritasRecentes;
+
+   private final AtomicBoolean verificando = new AtomicBoolean();
+   private volatile boolean emDia = true;
+   private volatile long proximaVerificacao = System.nanoTime();
+
+   /**
+    * @param consultaAtraso SQL executado na réplica que devolve o atraso em segundos; vazio considera a réplica
+    *                       sempre em dia e NULL (replicação parada) nunca
+    */
+   ConsistenciaReplica(DataSource replica, String consultaAtraso, Duration atrasoMaximo, Duration intervalo) {
+      this.replica = replica;
+      this.consultaAtraso = consultaAtraso;
+      this.atrasoMaximo = atrasoMaximo;
+      this.intervaloNanos = intervalo.toNanos();
+      this.escritasRecentes = Caffeine.newBuilder().expireAfterWrite(atrasoMaximo).build();
+   }
+
+   boolean podeLerDaReplica(Long usuario) {
+      if (usuario != null && escritasRecentes.getIfPresent(usuario) != null) {
+         return false;
+      }
+      return replicaEmDia();
+   }
+
+   void registrarEscrita(Long usuario) {
+      escritasRecentes.put(usuario, Boolean.TRUE);
+   }
+
+   /**
+    * o atraso é medido no máximo uma vez por intervalo, por uma só das threads que chegam; as demais usam a
+    * última medição.
+    */
+   private boolean replicaEmDia() {
+      if (consultaAtraso.isBlank()) {
+         return true;
+      }
+      long agora = System.nanoTime();
+      if (agora - proximaVerificacao >= 0 && verificando.compareAndSet(false, true)) {
+         try {
+            emDia = medirAtraso() <= atrasoMaximo.toMillis() / 1000.0;
+         } catch (SQLException e) {
+            log.warn("Não foi possível medir o atraso da réplica, leituras seguem no primário: {}", e.getMessage());
+            emDia = false;
+         } finally {
+            proximaVerificacao = agora + intervaloNanos;
+            verificando.set(false);
+         }
+      }
+      return emDia;
+   }
+
+   private double medirAtraso() throws SQLException {
+      try (Connection conexao = replica.getConnection();
+           Statement comando = conexao.createStatement();
+           ResultSet resultado = comando.executeQuery(consultaAtraso)) {
+         if (!resultado.next()) {
+            return Double.POSITIVE_INFINITY;
+         }
+         double segundos = resultado.getDouble(1);
+         return resultado.wasNull() ? Double.POSITIVE_INFINITY : segundos;
+      }
+   }
+}
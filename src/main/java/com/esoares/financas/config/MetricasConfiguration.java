@@ -0,0 +1,19 @@
+package com.esoares.financas.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfiguration {
+
+   /**
+    * atende o @Timed das classes de serviço; as tags são só classe, método e exceção, todas de cardinalidade fixa.
+    */
+   @Bean
+   public TimedAspect timedAspect(MeterRegistry registry) {
+      return new TimedAspect(registry);
+   }
+
+}
@@ -0,0 +1,80 @@
+package com.esoares.financas.config;
+
+import com.esoares.financas.api.ConsultasRequisicao;
+import com.esoares.financas.api.OrcamentoSqlFilter;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class OrcamentoSqlConfiguration {
+
+   /**
+    * envolve o datasource no proxy que conta cada execução; o pool continua acessível por unwrap,
+    * então as métricas do Hikari seguem funcionando. Datasources que não são candidatos a injeção (os pools
+    * atrás do roteamento para a réplica) ficam de fora, senão cada comando seria contado duas vezes.
+    */
+   @Bean
+   public static BeanPostProcessor contadorConsultasSql(ConfigurableListableBeanFactory beanFactory) {
+      return new BeanPostProcessor() {
+         @Override
+         public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                    && candidato(beanFactory, beanName)) {
+               return ProxyDataSourceBuilder.create(dataSource)
+                       .name(beanName)
+                       .afterQuery((execucao, consultas) -> ConsultasRequisicao.registrar(execucao.getElapsedTime()))
+                       .build();
+            }
+            return bean;
+         }
+      };
+   }
+
+   /**
+    * o filtro fica antes da cadeia do Spring Security para contar também o que o filtro do JWT consulta.
+    *
+    * @param limites pares "MÉTODO /padrão/da/rota=limite" separados por vírgula
+    */
+   @Bean
+   public FilterRegistrationBean<OrcamentoSqlFilter> orcamentoSqlFilter(
+           @Value("${sql.orcamento.limites:}") String limites,
+           @Value("${sql.orcamento.padrao:-1}") int limitePadrao,
+           @Value("${sql.orcamento.acao:LOG}") OrcamentoSqlFilter.Acao acao,
+           @Value("${sql.orcamento.cabecalhos:false}") boolean cabecalhos) {
+      FilterRegistrationBean<OrcamentoSqlFilter> registro = new FilterRegistrationBean<>(
+              new OrcamentoSqlFilter(lerLimites(limites), limitePadrao, acao, cabecalhos));
+      registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+      return registro;
+   }
+
+   private static boolean candidato(ConfigurableListableBeanFactory beanFactory, String beanName) {
+      return !beanFactory.containsBeanDefinition(beanName) || beanFactory.getBeanDefinition(beanName).isAutowireCandidate();
+   }
+
+   static Map<String, Integer> lerLimites(String texto) {
+      Map<String, Integer> limites = new HashMap<>();
+      for (String par : texto.split(",")) {
+         if (par.isBlank()) {
+            continue;
+         }
+         int separador = par.lastIndexOf('=');
+         if (separador < 0) {
+            throw new IllegalArgumentException("Orçamento SQL sem limite: " + par.trim());
+         }
+         limites.put(par.substring(0, separador).trim(), Integer.parseInt(par.substring(separador + 1).trim()));
+      }
+      return limites;
+   }
+
+}
@@ -0,0 +1,95 @@
+package com.esoares.financas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * com replica.datasource.url configurada, o datasource da aplicação passa a rotear entre o primário
+ * (spring.datasource.*) e a réplica (replica.datasource.*), cada um com seu pool.
+ * Os pools não são candidatos a injeção: só o datasource roteado é visto pelo JPA e pelo contador de consultas
+ * (o @Primary atende às condições de candidato único da autoconfiguração, que contam todos).
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "replica.datasource", name = "url")
+public class ReplicaConfiguration {
+
+   private final Environment environment;
+   private final ObjectProvider<MeterRegistry> registry;
+
+   public ReplicaConfiguration(Environment environment, ObjectProvider<MeterRegistry> registry) {
+      this.environment = environment;
+      this.registry = registry;
+   }
+
+   @Bean(autowireCandidate = false)
+   public HikariDataSource dataSourcePrimario(DataSourceProperties propriedades) {
+      return criarPool(propriedades, "spring.datasource.hikari", "primario");
+   }
+
+   @Bean(autowireCandidate = false)
+   public HikariDataSource dataSourceReplica() {
+      DataSourceProperties propriedades = Binder.get(environment)
+              .bind("replica.datasource", DataSourceProperties.class)
+              .get();
+      return criarPool(propriedades, "replica.datasource.hikari", "replica");
+   }
+
+   /**
+    * @param atrasoMaximo atraso tolerado na réplica e janela em que as leituras de quem acabou de escrever
+    *                     ficam no primário
+    */
+   @Bean
+   @Primary
+   public DataSource dataSource(DataSourceProperties propriedades,
+                                @Value("${replica.atraso-maximo:2s}") Duration atrasoMaximo,
+                                @Value("${replica.atraso.consulta:}") String consultaAtraso,
+                                @Value("${replica.atraso.intervalo:5s}") Duration intervalo) {
+      HikariDataSource replica = dataSourceReplica();
+      ConsistenciaReplica consistencia = new ConsistenciaReplica(replica, consultaAtraso, atrasoMaximo, intervalo);
+      return new LazyConnectionDataSourceProxy(
+              new RoteamentoDataSource(dataSourcePrimario(propriedades), replica, consistencia));
+   }
+
+   /**
+    * o Spring configura o Hibernate para segurar a conexão até o EntityManager fechar; com open-in-view ele dura
+    * a requisição, e uma escrita depois de uma leitura sairia pela conexão da réplica. Devolvendo a conexão ao
+    * fim de cada transação, a próxima pega uma nova e é roteada pelo próprio readOnly.
+    */
+   @Bean
+   public HibernatePropertiesCustomizer conexaoPorTransacao() {
+      return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+              PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+   }
+
+   /**
+    * o binder de métricas do Hikari só enxerga os datasources injetáveis, então cada pool registra as suas.
+    */
+   private HikariDataSource criarPool(DataSourceProperties propriedades, String prefixoHikari, String nome) {
+      HikariDataSource pool = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+      Binder.get(environment).bind(prefixoHikari, Bindable.ofInstance(pool));
+      if (pool.getPoolName() == null) {
+         pool.setPoolName(nome);
+      }
+      registry.ifAvailable(meterRegistry -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+      return pool;
+   }
+
+}
@@ -0,0 +1,69 @@
+package com.esoares.financas.config;
+
+import com.esoares.financas.service.UsuarioAutenticado;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * transações somente leitura vão para a réplica e todo o resto para o primário. Depende de ficar atrás de um
+ * LazyConnectionDataSourceProxy: a conexão só é escolhida no primeiro comando, quando o readOnly da transação
+ * já está publicado. E de o Hibernate devolver a conexão ao fim de cada transação (ver ReplicaConfiguration),
+ * senão um EntityManager aberto entre transações reaproveita a escolha da primeira.
+ */
+class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+   enum Destino {
+      PRIMARIO, REPLICA
+   }
+
+   private final ConsistenciaReplica consistencia;
+
+   RoteamentoDataSource(DataSource primario, DataSource replica, ConsistenciaReplica consistencia) {
+      this.consistencia = consistencia;
+      setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+      setDefaultTargetDataSource(primario);
+      afterPropertiesSet();
+   }
+
+   @Override
+   protected Object determineCurrentLookupKey() {
+      Long usuario = usuarioAtual();
+      if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+         registrarEscritaAposCommit(usuario);
+         return Destino.PRIMARIO;
+      }
+      return consistencia.podeLerDaReplica(usuario) ? Destino.REPLICA : Destino.PRIMARIO;
+   }
+
+   /**
+    * as próximas leituras do usuário ficam no primário durante o atraso máximo da réplica.
+    */
+   private void registrarEscritaAposCommit(Long usuario) {
+      if (usuario == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+         return;
+      }
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+         @Override
+         public void afterCommit() {
+            consistencia.registrarEscrita(usuario);
+         }
+      });
+   }
+
+   /**
+    * pelo id, que não muda com uma troca de e-mail no meio da janela.
+    */
+   private static Long usuarioAtual() {
+      Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+      if (autenticacao != null && autenticacao.getPrincipal() instanceof UsuarioAutenticado usuario) {
+         return usuario.getId();
+      }
+      return null;
+   }
+}
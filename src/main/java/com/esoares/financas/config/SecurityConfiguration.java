@@ -3,7 +3,9 @@ package com.esoares.financas.config;
 import com.esoares.financas.api.JwtTokenFilter;
 import com.esoares.financas.service.JwtService;
 import com.esoares.financas.service.impl.SecurityUserDetailsService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,6 +24,7 @@ import org.springframework.web.filter.CorsFilter;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 @Configuration
 public class SecurityConfiguration {
@@ -29,15 +32,27 @@ public class SecurityConfiguration {
    private final SecurityUserDetailsService userDetailsService;
    private final JwtService jwtService;
 
+   @Value("${jwt.stateless:true}")
+   private boolean stateless;
+
+   @Value("${seguranca.administradores:}")
+   private Set<String> administradores;
+
    @Autowired
    public SecurityConfiguration(SecurityUserDetailsService userDetailsService, JwtService jwtService) {
       this.userDetailsService = userDetailsService;
       this.jwtService = jwtService;
    }
 
+   @Value("${senha.bcrypt.forca:10}")
+   private int forcaBcrypt;
+
+   /**
+    * hashes gravados com força menor que a configurada são refeitos no próximo login.
+    */
    @Bean
    public PasswordEncoder passwordEncoder() {
-      return new BCryptPasswordEncoder();
+      return new BCryptPasswordEncoder(forcaBcrypt);
    }
 
    public void configureGlobal(AuthenticationManagerBuilder auth) throws Exception {
@@ -49,7 +64,7 @@ public class SecurityConfiguration {
 
    @Bean
    public JwtTokenFilter jwtTokenFilter() {
-      return new JwtTokenFilter(jwtService, userDetailsService);
+      return new JwtTokenFilter(jwtService, userDetailsService, stateless, administradores);
    }
 
    @Bean
@@ -58,10 +73,24 @@ public class SecurityConfiguration {
               .csrf(AbstractHttpConfigurer::disable)
               .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
               .authorizeHttpRequests(authz -> authz
+                      // respostas em streaming terminam num dispatch ASYNC, já autorizado no REQUEST original
+                      .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                       .requestMatchers(
                               new AntPathRequestMatcher("/api/usuarios/autenticar", HttpMethod.POST.name()),
+                              new AntPathRequestMatcher("/api/usuarios/refresh", HttpMethod.POST.name()),
                               new AntPathRequestMatcher("/api/usuarios", HttpMethod.POST.name())
                       ).permitAll()
+                      // coleta do Prometheus e health check do balanceador, sem token; o actuator só responde na
+                      // porta de gerenciamento (management.server.port), que não fica exposta como a da API
+                      .requestMatchers(
+                              new AntPathRequestMatcher("/actuator/health", HttpMethod.GET.name()),
+                              new AntPathRequestMatcher("/actuator/prometheus", HttpMethod.GET.name())
+                      ).permitAll()
+                      // recálculo do histórico inteiro com o usuário bloqueado: só para manutenção
+                      .requestMatchers(
+                              new AntPathRequestMatcher("/api/usuarios/*/saldo/reconciliar", HttpMethod.POST.name()),
+                              new AntPathRequestMatcher("/api/usuarios/*/resumo/reconstruir", HttpMethod.POST.name())
+                      ).hasRole("ADMIN")
                       .anyRequest().authenticated()
               )
               .addFilterBefore(jwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
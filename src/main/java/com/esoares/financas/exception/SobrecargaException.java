@@ -0,0 +1,19 @@
+package com.esoares.financas.exception;
+
+/**
+ * a operação foi recusada para proteger o servidor; o cliente deve tentar de novo após o intervalo indicado.
+ */
+public class SobrecargaException extends RuntimeException {
+
+   private final long retryAfterSegundos;
+
+   public SobrecargaException(String msg, long retryAfterSegundos) {
+      super(msg);
+      this.retryAfterSegundos = retryAfterSegundos;
+   }
+
+   public long getRetryAfterSegundos() {
+      return retryAfterSegundos;
+   }
+
+}
@@ -6,12 +6,19 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
-@Table(name = "lancamento")
+@Table(name = "lancamento", indexes = {
+        @Index(name = "idx_lancamento_usuario_periodo", columnList = "id_usuario, ano, mes, tipo, status"),
+        @Index(name = "idx_lancamento_usuario_data_cadastro", columnList = "id_usuario, data_cadastro"),
+        @Index(name = "idx_lancamento_usuario_valor", columnList = "id_usuario, valor"),
+        @Index(name = "idx_lancamento_usuario_hash_importacao", columnList = "id_usuario, hash_importacao", unique = true)
+})
 @Entity
 @Data
 @Builder
@@ -19,8 +26,14 @@ import java.time.LocalDate;
 @AllArgsConstructor
 public class Lancamento {
 
+   /**
+    * sequência com blocos de 50 ids (otimizador pooled): o id sai da memória sem ida ao banco,
+    * o que permite ao Hibernate agrupar os inserts em lotes JDBC. No MySQL vira a tabela lancamento_seq,
+    * criada e posicionada acima do maior id por db/mysql/atualizacao.sql.
+    */
    @Id
-   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_seq")
+   @SequenceGenerator(name = "lancamento_seq", sequenceName = "lancamento_seq", allocationSize = 50)
    @Column(name = "id")
    private Long id;
 
@@ -33,8 +46,10 @@ public class Lancamento {
    @Column(name = "ano")
    private Integer ano;
 
-   @ManyToOne
+   @ManyToOne(fetch = FetchType.LAZY)
    @JoinColumn(name = "id_usuario")
+   @ToString.Exclude
+   @EqualsAndHashCode.Exclude
    private Usuario usuario;
 
    @Column(name = "valor")
@@ -51,4 +66,17 @@ public class Lancamento {
    @Enumerated(value = EnumType.STRING)
    private StatusLancamento status;
 
+   /**
+    * identifica a movimentação de extrato que originou o lançamento; nulo para lançamentos digitados.
+    */
+   @Column(name = "hash_importacao", length = 64)
+   private String hashImportacao;
+
+   /**
+    * controle de concorrência otimista: toda alteração incrementa a versão e só é aplicada sobre a versão esperada.
+    */
+   @Version
+   @Column(name = "versao", nullable = false)
+   private Long versao;
+
 }
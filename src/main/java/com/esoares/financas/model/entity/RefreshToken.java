@@ -0,0 +1,56 @@
+package com.esoares.financas.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * refresh token opaco; só o SHA-256 do valor entregue ao cliente é gravado. Os tokens gerados por rotação
+ * a partir de um mesmo login compartilham a família, revogada inteira quando um token já usado reaparece.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "refresh_token", indexes = {
+        @Index(name = "idx_refresh_token_hash", columnList = "hash", unique = true),
+        @Index(name = "idx_refresh_token_familia", columnList = "familia"),
+        @Index(name = "idx_refresh_token_expiracao", columnList = "expiracao")
+})
+public class RefreshToken {
+
+   @Id
+   @GeneratedValue(strategy = GenerationType.IDENTITY)
+   @Column(name = "id")
+   private Long id;
+
+   @Column(name = "hash", length = 64, nullable = false)
+   private String hash;
+
+   @Column(name = "familia", length = 36, nullable = false)
+   private String familia;
+
+   @Column(name = "id_usuario", nullable = false)
+   private Long idUsuario;
+
+   @Column(name = "expiracao", nullable = false)
+   private LocalDateTime expiracao;
+
+   /**
+    * verdadeiro depois da rotação ou da revogação; um token usado não é aceito de novo.
+    */
+   @Column(name = "usado", nullable = false)
+   private boolean usado;
+
+}
@@ -0,0 +1,37 @@
+package com.esoares.financas.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * soma e quantidade dos lançamentos de um usuário por mês, tipo e status, mantidas junto com cada alteração.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "lancamento_resumo_mensal", indexes = {
+        @Index(name = "idx_resumo_mensal_usuario_ano", columnList = "id_usuario, ano")
+})
+public class ResumoMensal {
+
+   @EmbeddedId
+   private ResumoMensalId id;
+
+   @Column(name = "total", precision = 16, scale = 2, nullable = false)
+   private BigDecimal total;
+
+   @Column(name = "quantidade", nullable = false)
+   private Long quantidade;
+
+}
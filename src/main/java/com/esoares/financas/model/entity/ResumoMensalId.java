@@ -0,0 +1,38 @@
+package com.esoares.financas.model.entity;
+
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class ResumoMensalId implements Serializable {
+
+   @Column(name = "id_usuario")
+   private Long idUsuario;
+
+   @Column(name = "ano")
+   private Integer ano;
+
+   @Column(name = "mes")
+   private Integer mes;
+
+   @Column(name = "tipo")
+   @Enumerated(value = EnumType.STRING)
+   private TipoLancamento tipo;
+
+   @Column(name = "status")
+   @Enumerated(value = EnumType.STRING)
+   private StatusLancamento status;
+
+}
@@ -0,0 +1,35 @@
+package com.esoares.financas.model.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * saldo corrente do usuário, atualizado na mesma transação de cada alteração de lançamento.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "saldo_usuario")
+public class SaldoUsuario {
+
+   @Id
+   @Column(name = "id_usuario")
+   private Long idUsuario;
+
+   @Column(name = "saldo_efetivado", precision = 16, scale = 2, nullable = false)
+   private BigDecimal saldoEfetivado;
+
+   @Column(name = "saldo_pendente", precision = 16, scale = 2, nullable = false)
+   private BigDecimal saldoPendente;
+
+}
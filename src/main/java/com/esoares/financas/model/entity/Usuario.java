@@ -2,17 +2,29 @@ package com.esoares.financas.model.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+/**
+ * lido em quase toda requisição e raramente alterado: fica no cache de segundo nível, por id e por e-mail.
+ */
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "usuario")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "usuario")
+@NaturalIdCache(region = "usuario-email")
+@Table(name = "usuario", indexes = {
+        @Index(name = "idx_usuario_email", columnList = "email", unique = true)
+})
 public class Usuario {
 
    @Column(name = "id")
@@ -23,6 +35,7 @@ public class Usuario {
    @Column(name = "nome")
    private String nome;
 
+   @NaturalId
    @Column(name = "email")
    private String email;
 
@@ -0,0 +1,34 @@
+package com.esoares.financas.model.projection;
+
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * colunas do lançamento usadas nas leituras, sem o usuário (apenas o id_usuario da própria tabela).
+ * Preenchida por expressão de construtor, então a ordem dos argumentos faz parte do contrato das consultas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoProjecao {
+
+   private Long id;
+   private String descricao;
+   private Integer mes;
+   private Integer ano;
+   private BigDecimal valor;
+   private Long idUsuario;
+   private TipoLancamento tipo;
+   private StatusLancamento status;
+   private LocalDate dataCadastro;
+   private Long versao;
+
+}
@@ -0,0 +1,51 @@
+package com.esoares.financas.model.projection;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * campos do lançamento que compõem os saldos e o resumo mensal, usados para calcular a diferença entre antes e depois de uma alteração.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValoresLancamento {
+
+   private Long idUsuario;
+   private Integer ano;
+   private Integer mes;
+   private TipoLancamento tipo;
+   private StatusLancamento status;
+   private BigDecimal valor;
+
+   public static ValoresLancamento de(Lancamento lancamento) {
+      Long idUsuario = lancamento.getUsuario() == null ? null : lancamento.getUsuario().getId();
+      return new ValoresLancamento(idUsuario, lancamento.getAno(), lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+   }
+
+   public static ValoresLancamento de(LancamentoProjecao lancamento) {
+      return new ValoresLancamento(lancamento.getIdUsuario(), lancamento.getAno(), lancamento.getMes(),
+              lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+   }
+
+   public ValoresLancamento comStatus(StatusLancamento novoStatus) {
+      return new ValoresLancamento(idUsuario, ano, mes, tipo, novoStatus, valor);
+   }
+
+   /**
+    * valor com sinal: positivo para receitas e negativo para despesas.
+    */
+   public BigDecimal getValorComSinal() {
+      if (valor == null || tipo == null) {
+         return BigDecimal.ZERO;
+      }
+      return tipo == TipoLancamento.RECEITA ? valor : valor.negate();
+   }
+
+}
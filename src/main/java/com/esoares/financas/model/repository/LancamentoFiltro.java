@@ -0,0 +1,33 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * critérios da busca de lançamentos. Campos nulos não filtram.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentoFiltro {
+
+   private Long idUsuario;
+   private Integer ano;
+   private Integer mes;
+   private TipoLancamento tipo;
+   private StatusLancamento status;
+   private BigDecimal valorMinimo;
+   private BigDecimal valorMaximo;
+   private LocalDate dataCadastroInicial;
+   private LocalDate dataCadastroFinal;
+   private String descricao;
+
+}
@@ -3,20 +3,155 @@ package com.esoares.financas.model.repository;
 import com.esoares.financas.model.entity.Lancamento;
 import com.esoares.financas.model.enums.StatusLancamento;
 import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.projection.ValoresLancamento;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, JpaSpecificationExecutor<Lancamento>,
+        LancamentoRepositoryCustom {
 
+   /**
+    * receitas menos despesas do usuário no status informado, em uma única agregação e sem join com usuario.
+    */
    @Query(value =
-            "select sum(l.valor) from Lancamento l join l.usuario u " +
-            "where u.id = :idUsuario and l.tipo = :tipo and l.status = :status group by u")
-   BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
+            "select coalesce(sum(case when l.tipo = com.esoares.financas.model.enums.TipoLancamento.RECEITA " +
+            "then l.valor else -l.valor end), 0) " +
+            "from Lancamento l where l.usuario.id = :idUsuario and l.status = :status")
+   BigDecimal obterSaldoPorUsuarioEStatus(
            @Param("idUsuario") Long idUsuario,
+           @Param("status") StatusLancamento status);
+
+   /**
+    * saldo (receitas menos despesas) de cada status do usuário, exceto cancelados, em uma única consulta.
+    */
+   @Query(value =
+            "select l.status as status, " +
+            "sum(case when l.tipo = com.esoares.financas.model.enums.TipoLancamento.RECEITA " +
+            "then l.valor else -l.valor end) as saldo " +
+            "from Lancamento l where l.usuario.id = :idUsuario " +
+            "and l.status <> com.esoares.financas.model.enums.StatusLancamento.CANCELADO " +
+            "group by l.status")
+   List<SaldoPorStatus> obterSaldoPorStatus(@Param("idUsuario") Long idUsuario);
+
+   /**
+    * soma e quantidade de uma chave do resumo mensal, coberta pelo índice idx_lancamento_usuario_periodo.
+    */
+   @Query("select coalesce(sum(l.valor), 0) as total, count(l) as quantidade from Lancamento l " +
+           "where l.usuario.id = :idUsuario and l.ano = :ano and l.mes = :mes and l.tipo = :tipo and l.status = :status")
+   TotalPorPeriodo obterTotalPorPeriodo(
+           @Param("idUsuario") Long idUsuario,
+           @Param("ano") Integer ano,
+           @Param("mes") Integer mes,
            @Param("tipo") TipoLancamento tipo,
-           @Param("status")StatusLancamento status);
+           @Param("status") StatusLancamento status);
+
+   @Query("select new com.esoares.financas.model.projection.LancamentoProjecao(" +
+           "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.dataCadastro, l.versao) " +
+           "from Lancamento l where l.id = :id")
+   Optional<LancamentoProjecao> findProjecaoById(@Param("id") Long id);
+
+   @Query("select new com.esoares.financas.model.projection.LancamentoProjecao(" +
+           "l.id, l.descricao, l.mes, l.ano, l.valor, l.usuario.id, l.tipo, l.status, l.dataCadastro, l.versao) " +
+           "from Lancamento l where l.usuario.id = :idUsuario and l.id in :ids")
+   List<LancamentoProjecao> obterProjecoesPorUsuarioEIds(@Param("idUsuario") Long idUsuario,
+                                                         @Param("ids") Collection<Long> ids);
+
+   /**
+    * altera o status de vários lançamentos do usuário em um único comando, sem carregar as entidades.
+    * O contexto de persistência é limpo ao final, já que as entidades carregadas ficariam desatualizadas.
+    */
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 " +
+           "where l.usuario.id = :idUsuario and l.id in :ids and l.status <> :status")
+   int atualizarStatus(@Param("idUsuario") Long idUsuario,
+                       @Param("ids") Collection<Long> ids,
+                       @Param("status") StatusLancamento status);
+
+   /**
+    * grava os campos editáveis do lançamento somente se a versão no banco ainda for a do lançamento informado,
+    * sem carregá-lo antes; devolve 0 quando outra alteração chegou primeiro.
+    */
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update Lancamento l set l.descricao = :#{#lancamento.descricao}, l.mes = :#{#lancamento.mes}, " +
+           "l.ano = :#{#lancamento.ano}, l.valor = :#{#lancamento.valor}, l.usuario = :#{#lancamento.usuario}, " +
+           "l.tipo = :#{#lancamento.tipo}, l.status = :#{#lancamento.status}, l.versao = l.versao + 1 " +
+           "where l.id = :#{#lancamento.id} and l.versao = :#{#lancamento.versao}")
+   int atualizarNaVersao(@Param("lancamento") Lancamento lancamento);
+
+   @Modifying(flushAutomatically = true, clearAutomatically = true)
+   @Query("update Lancamento l set l.status = :status, l.versao = l.versao + 1 " +
+           "where l.id = :id and l.versao = :versao")
+   int atualizarStatusNaVersao(@Param("id") Long id,
+                               @Param("status") StatusLancamento status,
+                               @Param("versao") Long versao);
+
+   /**
+    * valores gravados no banco, ignorando alterações ainda não enviadas do contexto de persistência
+    * (o hint evita o flush automático antes da consulta).
+    */
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "COMMIT"))
+   @Query("select new com.esoares.financas.model.projection.ValoresLancamento(l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) " +
+           "from Lancamento l where l.id = :id")
+   Optional<ValoresLancamento> obterValores(@Param("id") Long id);
+
+   @Query("select l.hashImportacao from Lancamento l " +
+           "where l.usuario.id = :idUsuario and l.hashImportacao in :hashes")
+   Set<String> obterHashesImportados(@Param("idUsuario") Long idUsuario, @Param("hashes") Collection<String> hashes);
+
+   /**
+    * lê os lançamentos do usuário em blocos do tamanho do fetch size, sem materializar o resultado.
+    * Precisa ser consumido dentro de uma transação e fechado ao final.
+    */
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+           @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+   })
+   @Query("select l from Lancamento l where l.usuario.id = :idUsuario order by l.id")
+   Stream<Lancamento> streamPorUsuario(@Param("idUsuario") Long idUsuario);
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query("select l.id as id, l.usuario.id as idUsuario, l.descricao as descricao from Lancamento l")
+   Stream<DescricaoIndexada> streamDescricoes();
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query("select l.id as id, l.usuario.id as idUsuario, l.descricao as descricao from Lancamento l where l.usuario.id = :idUsuario")
+   Stream<DescricaoIndexada> streamDescricoesPorUsuario(@Param("idUsuario") Long idUsuario);
+
+   interface DescricaoIndexada {
+
+      Long getId();
+
+      Long getIdUsuario();
+
+      String getDescricao();
+   }
+
+   interface SaldoPorStatus {
+
+      StatusLancamento getStatus();
+
+      BigDecimal getSaldo();
+   }
+
+   interface TotalPorPeriodo {
+
+      BigDecimal getTotal();
+
+      Long getQuantidade();
+   }
 
 }
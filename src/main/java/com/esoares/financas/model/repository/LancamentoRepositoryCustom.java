@@ -0,0 +1,19 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface LancamentoRepositoryCustom {
+
+   /**
+    * projeções dos lançamentos que atendem a specification, ordenadas por id.
+    *
+    * @param apos   quando informado, apenas ids maiores (cursor da paginação)
+    * @param limite quantidade máxima de linhas, nulo para todas
+    */
+   List<LancamentoProjecao> buscarProjecoes(Specification<Lancamento> specification, Long apos, Integer limite);
+
+}
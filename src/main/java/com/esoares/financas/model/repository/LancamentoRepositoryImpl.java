@@ -0,0 +1,60 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+
+   private final EntityManager entityManager;
+
+   public LancamentoRepositoryImpl(EntityManager entityManager) {
+      this.entityManager = entityManager;
+   }
+
+   @Override
+   public List<LancamentoProjecao> buscarProjecoes(Specification<Lancamento> specification, Long apos, Integer limite) {
+      CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+      CriteriaQuery<LancamentoProjecao> query = cb.createQuery(LancamentoProjecao.class);
+      Root<Lancamento> root = query.from(Lancamento.class);
+
+      // usuario.id é resolvido pela chave estrangeira, sem join com a tabela usuario
+      query.select(cb.construct(LancamentoProjecao.class,
+              root.get("id"),
+              root.get("descricao"),
+              root.get("mes"),
+              root.get("ano"),
+              root.get("valor"),
+              root.get("usuario").get("id"),
+              root.get("tipo"),
+              root.get("status"),
+              root.get("dataCadastro"),
+              root.get("versao")));
+
+      List<Predicate> predicados = new ArrayList<>();
+      Predicate predicado = specification == null ? null : specification.toPredicate(root, query, cb);
+      if (predicado != null) {
+         predicados.add(predicado);
+      }
+      if (apos != null) {
+         predicados.add(cb.greaterThan(root.get("id"), apos));
+      }
+      query.where(predicados.toArray(new Predicate[0]));
+      query.orderBy(cb.asc(root.get("id")));
+
+      TypedQuery<LancamentoProjecao> typedQuery = entityManager.createQuery(query);
+      if (limite != null) {
+         typedQuery.setMaxResults(limite);
+      }
+      return typedQuery.getResultList();
+   }
+}
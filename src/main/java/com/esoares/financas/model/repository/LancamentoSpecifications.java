@@ -0,0 +1,81 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Lancamento;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class LancamentoSpecifications {
+
+   private static final EscapeCharacter ESCAPE = EscapeCharacter.DEFAULT;
+
+   private LancamentoSpecifications() {
+   }
+
+   /**
+    * apenas igualdades e intervalos sobre colunas indexadas (id_usuario, ano, mes, tipo, status, valor, data_cadastro).
+    * O filtro de descrição fica de fora, ver {@link #descricaoContem(String)}.
+    */
+   public static Specification<Lancamento> porFiltro(LancamentoFiltro filtro) {
+      return (root, query, cb) -> {
+         List<Predicate> predicados = new ArrayList<>();
+
+         if (filtro.getIdUsuario() != null) {
+            predicados.add(cb.equal(root.get("usuario").get("id"), filtro.getIdUsuario()));
+         }
+         if (filtro.getAno() != null) {
+            predicados.add(cb.equal(root.get("ano"), filtro.getAno()));
+         }
+         if (filtro.getMes() != null) {
+            predicados.add(cb.equal(root.get("mes"), filtro.getMes()));
+         }
+         if (filtro.getTipo() != null) {
+            predicados.add(cb.equal(root.get("tipo"), filtro.getTipo()));
+         }
+         if (filtro.getStatus() != null) {
+            predicados.add(cb.equal(root.get("status"), filtro.getStatus()));
+         }
+         if (filtro.getValorMinimo() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(root.get("valor"), filtro.getValorMinimo()));
+         }
+         if (filtro.getValorMaximo() != null) {
+            predicados.add(cb.lessThanOrEqualTo(root.get("valor"), filtro.getValorMaximo()));
+         }
+         if (filtro.getDataCadastroInicial() != null) {
+            predicados.add(cb.greaterThanOrEqualTo(root.get("dataCadastro"), filtro.getDataCadastroInicial()));
+         }
+         if (filtro.getDataCadastroFinal() != null) {
+            predicados.add(cb.lessThanOrEqualTo(root.get("dataCadastro"), filtro.getDataCadastroFinal()));
+         }
+
+         return cb.and(predicados.toArray(new Predicate[0]));
+      };
+   }
+
+   /**
+    * busca textual, não usa índice. Aplicada por último, sobre as linhas que já passaram por {@link #porFiltro}.
+    */
+   public static Specification<Lancamento> descricaoContem(String descricao) {
+      if (descricao == null || descricao.isBlank()) {
+         return null;
+      }
+      // % e _ digitados pelo usuário são literais, como na busca por Example que esta substituiu
+      String padrao = "%" + ESCAPE.escape(descricao.trim().toLowerCase()) + "%";
+      return (root, query, cb) -> cb.like(cb.lower(root.get("descricao")), padrao, ESCAPE.getEscapeCharacter());
+   }
+
+   /**
+    * restringe aos ids informados, usado com os candidatos do índice de descrições.
+    */
+   public static Specification<Lancamento> idEm(Collection<Long> ids) {
+      if (ids.isEmpty()) {
+         return (root, query, cb) -> cb.disjunction();
+      }
+      return (root, query, cb) -> root.get("id").in(ids);
+   }
+
+}
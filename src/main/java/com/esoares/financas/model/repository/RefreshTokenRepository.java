@@ -0,0 +1,36 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+   Optional<RefreshToken> findByHash(String hash);
+
+   /**
+    * marca o token como usado somente se ainda não estiver; com duas renovações simultâneas do mesmo token
+    * apenas uma recebe 1.
+    */
+   @Modifying
+   @Query("update RefreshToken r set r.usado = true where r.id = :id and r.usado = false")
+   int marcarUsado(@Param("id") Long id);
+
+   @Modifying
+   @Query("update RefreshToken r set r.usado = true where r.familia = :familia and r.usado = false")
+   int revogarFamilia(@Param("familia") String familia);
+
+   /**
+    * apaga os tokens vencidos e os usados que já passaram da retenção; os dois limites percorrem o índice de
+    * expiração, já que limiteUsados nunca é anterior a limite.
+    */
+   @Modifying
+   @Query("delete from RefreshToken r where r.expiracao < :limiteUsados and (r.usado = true or r.expiracao < :limite)")
+   int removerVencidos(@Param("limite") LocalDateTime limite, @Param("limiteUsados") LocalDateTime limiteUsados);
+
+}
@@ -0,0 +1,47 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.entity.ResumoMensalId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ResumoMensalId> {
+
+   /**
+    * @return 0 quando ainda não existe linha para a chave
+    */
+   @Modifying
+   @Query("update ResumoMensal r set r.total = r.total + :total, r.quantidade = r.quantidade + :quantidade " +
+           "where r.id = :id")
+   int somar(@Param("id") ResumoMensalId id,
+             @Param("total") BigDecimal total,
+             @Param("quantidade") long quantidade);
+
+   @Modifying
+   @Query("delete from ResumoMensal r where r.id.idUsuario = :idUsuario")
+   int excluirPorUsuario(@Param("idUsuario") Long idUsuario);
+
+   /**
+    * recria a partir dos lançamentos as linhas do usuário; as de outros usuários não são tocadas.
+    * Ignora lançamentos sem período, tipo, status ou valor, como a manutenção incremental.
+    *
+    * @return quantidade de linhas incluídas
+    */
+   @Modifying
+   @Query(value = "insert into lancamento_resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade) " +
+           "select l.id_usuario, l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(*) from lancamento l " +
+           "where l.id_usuario = :idUsuario and l.ano is not null and l.mes is not null and l.tipo is not null " +
+           "and l.status is not null and l.valor is not null " +
+           "group by l.id_usuario, l.ano, l.mes, l.tipo, l.status", nativeQuery = true)
+   int incluirPorUsuario(@Param("idUsuario") Long idUsuario);
+
+   @Query("select r from ResumoMensal r where r.id.idUsuario = :idUsuario and r.id.ano = :ano and r.quantidade > 0 " +
+           "order by r.id.mes, r.id.tipo, r.id.status")
+   List<ResumoMensal> obterPorUsuarioEAno(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano);
+
+}
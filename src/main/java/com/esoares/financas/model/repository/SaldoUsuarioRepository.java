@@ -0,0 +1,25 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.SaldoUsuario;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+
+   /**
+    * soma atômica no próprio banco, atualizações concorrentes do mesmo usuário não se sobrescrevem.
+    *
+    * @return 0 quando o usuário ainda não tem linha de saldo
+    */
+   @Modifying
+   @Query("update SaldoUsuario s set s.saldoEfetivado = s.saldoEfetivado + :efetivado, " +
+           "s.saldoPendente = s.saldoPendente + :pendente where s.idUsuario = :idUsuario")
+   int somar(@Param("idUsuario") Long idUsuario,
+             @Param("efetivado") BigDecimal efetivado,
+             @Param("pendente") BigDecimal pendente);
+
+}
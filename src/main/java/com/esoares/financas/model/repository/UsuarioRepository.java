@@ -1,15 +1,43 @@
 package com.esoares.financas.model.repository;
 
 import com.esoares.financas.model.entity.Usuario;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, UsuarioRepositoryCustom {
 
 
    boolean existsByEmail(String email);
-   Optional<Usuario> findByEmail(String email);
+
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+   @Query("select u.email from Usuario u where u.email is not null")
+   Stream<String> streamEmails();
+
+   /**
+    * bloqueia a linha do usuário até o fim da transação, serializando as alterações de lançamentos do usuário.
+    */
+   @Lock(LockModeType.PESSIMISTIC_WRITE)
+   @Query("select u from Usuario u where u.id = :id")
+   Optional<Usuario> travarPorId(@Param("id") Long id);
+
+   /**
+    * troca o hash da senha somente se ele ainda for o informado, sem sobrescrever uma troca de senha concorrente.
+    */
+   @Transactional
+   @Modifying
+   @Query("update Usuario u set u.senha = :novaSenha where u.id = :id and u.senha = :senhaAtual")
+   int atualizarSenha(@Param("id") Long id, @Param("senhaAtual") String senhaAtual, @Param("novaSenha") String novaSenha);
 
 
 }
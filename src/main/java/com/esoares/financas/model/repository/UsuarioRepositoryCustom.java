@@ -0,0 +1,14 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Usuario;
+
+import java.util.Optional;
+
+public interface UsuarioRepositoryCustom {
+
+   /**
+    * busca pelo id natural (e-mail), que passa pelo cache de segundo nível em vez de sempre consultar o banco.
+    */
+   Optional<Usuario> findByEmail(String email);
+
+}
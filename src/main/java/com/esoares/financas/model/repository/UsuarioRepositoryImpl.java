@@ -0,0 +1,23 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Usuario;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+   private final EntityManager entityManager;
+
+   public UsuarioRepositoryImpl(EntityManager entityManager) {
+      this.entityManager = entityManager;
+   }
+
+   @Override
+   public Optional<Usuario> findByEmail(String email) {
+      return entityManager.unwrap(Session.class)
+              .bySimpleNaturalId(Usuario.class)
+              .loadOptional(email);
+   }
+}
@@ -0,0 +1,20 @@
+package com.esoares.financas.service;
+
+/**
+ * filtro em memória dos e-mails cadastrados, para dispensar a consulta de existência quando o e-mail é novo.
+ */
+public interface EmailCadastradoService {
+
+   /**
+    * falso garante que o e-mail não está cadastrado; verdadeiro exige a consulta ao banco.
+    */
+   boolean podeExistir(String email);
+
+   /**
+    * informa o resultado da consulta feita após um podeExistir verdadeiro, para medir os falsos positivos.
+    */
+   void registrarConsulta(boolean existia);
+
+   void registrar(String email);
+
+}
@@ -0,0 +1,18 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Usuario;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+public interface ImportacaoService {
+
+   /**
+    * grava as linhas do extrato em lotes, cada lote em sua própria transação, ignorando movimentações
+    * já importadas. As linhas são consumidas uma a uma, então a memória usada não depende do tamanho do arquivo.
+    *
+    * @param progresso chamado após cada lote e uma última vez ao final
+    */
+   ProgressoImportacao importar(Usuario usuario, Iterator<LinhaExtrato> linhas, Consumer<ProgressoImportacao> progresso);
+
+}
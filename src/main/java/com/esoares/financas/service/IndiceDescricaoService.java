@@ -0,0 +1,28 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Lancamento;
+
+import java.util.Set;
+
+public interface IndiceDescricaoService {
+
+   /**
+    * inclui ou substitui a descrição do lançamento no índice, após o commit da transação corrente.
+    */
+   void indexar(Lancamento lancamento);
+
+   /**
+    * retira o lançamento do índice, após o commit da transação corrente.
+    */
+   void remover(Lancamento lancamento);
+
+   /**
+    * ids dos lançamentos do usuário cuja descrição contém o termo, sem diferenciar maiúsculas nem acentos.
+    * Enquanto o índice ainda não foi carregado, ou sem usuário, as descrições são lidas do banco e conferidas
+    * com a mesma regra.
+    */
+   Set<Long> buscar(Long idUsuario, String termo);
+
+   void reconstruir();
+
+}
@@ -4,6 +4,8 @@ import com.esoares.financas.model.entity.Usuario;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 
+import java.util.Optional;
+
 
 public interface JwtService {
 
@@ -11,8 +13,24 @@ public interface JwtService {
 
    Claims obterClaims(String token) throws ExpiredJwtException;
 
+   /**
+    * claims de um token com assinatura válida, ainda não expirado e não revogado; vazio caso contrário.
+    */
+   Optional<Claims> obterClaimsValidas(String token);
+
+   /**
+    * verifica o token uma única vez e devolve o usuário das claims; tokens já verificados saem de um cache
+    * limitado, que respeita expiração e revogação.
+    */
+   Optional<UsuarioAutenticado> autenticar(String token);
+
    boolean isTokenValido(String token);
 
    String obterLoginUsuario(String token);
 
-}
\ No newline at end of file
+   /**
+    * invalida o token até a sua expiração, mesmo que a assinatura continue válida.
+    */
+   void revogar(String token);
+
+}
@@ -2,26 +2,75 @@ package com.esoares.financas.service;
 
 import com.esoares.financas.model.entity.Lancamento;
 import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.repository.LancamentoFiltro;
+import org.springframework.data.domain.Window;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
 
    Lancamento salvar(Lancamento lancamento);
 
+   /**
+    * valida cada lançamento e grava os válidos em uma única transação, com inserts em lote JDBC
+    * e uma única atualização dos agregados por chave. Itens inválidos não impedem a gravação dos demais.
+    */
+   ResultadoLote salvarEmLote(List<Lancamento> lancamentos);
+
+   /**
+    * grava o lançamento somente se ele ainda estiver na versão que carrega, sem lê-lo antes;
+    * se outra alteração chegou primeiro lança ConflitoVersaoException.
+    */
    Lancamento atualizar(Lancamento lancamento);
 
    void deletar(Lancamento lancamento);
 
-   List<Lancamento> buscar(Lancamento lancamentoFiltro);
+   List<LancamentoProjecao> buscar(LancamentoFiltro filtro);
+
+   /**
+    * busca paginada por cursor (keyset): retorna até {@code limite} lançamentos com id maior que {@code apos},
+    * ordenados por id. O custo de qualquer página é o mesmo da primeira.
+    */
+   Window<LancamentoProjecao> buscar(LancamentoFiltro filtro, Long apos, int limite);
+
+   long contar(LancamentoFiltro filtro);
+
+   /**
+    * entrega ao consumidor, um a um e em ordem de id, todos os lançamentos do usuário.
+    * Cada lançamento é desanexado do contexto de persistência depois de consumido.
+    */
+   void exportar(Long idUsuario, Consumer<Lancamento> consumidor);
 
    void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+   /**
+    * altera só o status, desde que o lançamento ainda esteja na versão informada; do contrário lança
+    * ConflitoVersaoException. Devolve o lançamento já com o novo status e a nova versão.
+    */
+   LancamentoProjecao atualizarStatus(Long id, StatusLancamento status, Long versao);
+
+   /**
+    * leva vários lançamentos do usuário ao mesmo status com comandos update em blocos, sem carregar as entidades,
+    * e atualiza os agregados uma vez. O resultado segue a ordem dos ids recebidos.
+    */
+   Map<Long, ResultadoAtualizacaoStatus> atualizarStatusEmLote(Long idUsuario, Collection<Long> ids, StatusLancamento status);
+
    void validar(Lancamento lancamento);
 
    Optional<Lancamento> obterPorId(Long id);
 
+   Optional<LancamentoProjecao> obterProjecaoPorId(Long id);
+
    BigDecimal obterSaldoPorUsuario(Long id);
+
+   /**
+    * saldo do usuário separado por status (PENDENTE e EFETIVADO), calculado em uma única consulta.
+    */
+   Map<StatusLancamento, BigDecimal> obterSaldoPorStatus(Long id);
 }
@@ -0,0 +1,43 @@
+package com.esoares.financas.service;
+
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * uma movimentação lida de um extrato bancário, ou o motivo de a linha não ter sido entendida.
+ */
+@Getter
+public class LinhaExtrato {
+
+   private final long numero;
+   private final LocalDate data;
+   private final String descricao;
+
+   /**
+    * positivo para créditos e negativo para débitos.
+    */
+   private final BigDecimal valor;
+   private final String erro;
+
+   private LinhaExtrato(long numero, LocalDate data, String descricao, BigDecimal valor, String erro) {
+      this.numero = numero;
+      this.data = data;
+      this.descricao = descricao;
+      this.valor = valor;
+      this.erro = erro;
+   }
+
+   public static LinhaExtrato valida(long numero, LocalDate data, String descricao, BigDecimal valor) {
+      return new LinhaExtrato(numero, data, descricao, valor, null);
+   }
+
+   public static LinhaExtrato invalida(long numero, String erro) {
+      return new LinhaExtrato(numero, null, null, null, erro);
+   }
+
+   public boolean isValida() {
+      return erro == null;
+   }
+}
@@ -0,0 +1,48 @@
+package com.esoares.financas.service;
+
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * contadores de uma importação de extrato, atualizados a cada lote gravado.
+ */
+@Getter
+public class ProgressoImportacao {
+
+   /**
+    * só os primeiros erros são guardados, para que um arquivo inteiro inválido não ocupe memória.
+    */
+   public static final int MAXIMO_ERROS = 100;
+
+   private long lidas;
+   private long importadas;
+   private long duplicadas;
+   private long rejeitadas;
+   private boolean concluida;
+   private final Map<Long, String> erros = new LinkedHashMap<>();
+
+   public void registrarLeitura() {
+      lidas++;
+   }
+
+   public void registrarImportadas(long quantidade) {
+      importadas += quantidade;
+   }
+
+   public void registrarDuplicadas(long quantidade) {
+      duplicadas += quantidade;
+   }
+
+   public void registrarErro(long linha, String mensagem) {
+      rejeitadas++;
+      if (erros.size() < MAXIMO_ERROS) {
+         erros.put(linha, mensagem);
+      }
+   }
+
+   public void concluir() {
+      concluida = true;
+   }
+}
@@ -0,0 +1,28 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Usuario;
+
+public interface RefreshTokenService {
+
+   /**
+    * cria uma nova família de refresh tokens para o usuário e devolve o valor a entregar ao cliente.
+    */
+   String emitir(Usuario usuario);
+
+   /**
+    * troca o refresh token por um novo da mesma família, sem conferir a senha. Token desconhecido, expirado
+    * ou já usado lança ErroAutenticacao; no último caso a família inteira é revogada.
+    */
+   Renovacao renovar(String refreshToken);
+
+   /**
+    * revoga a família do token informado; token desconhecido é ignorado.
+    */
+   void revogar(String refreshToken);
+
+   /**
+    * apaga os tokens expirados e os já usados há mais tempo que a retenção, devolvendo quantos foram apagados.
+    */
+   int removerVencidos();
+
+}
@@ -0,0 +1,17 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Usuario;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * resultado de uma renovação: o usuário dono do token e o refresh token que substitui o usado.
+ */
+@Getter
+@AllArgsConstructor
+public class Renovacao {
+
+   private final Usuario usuario;
+   private final String refreshToken;
+
+}
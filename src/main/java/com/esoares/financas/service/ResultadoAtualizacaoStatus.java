@@ -0,0 +1,20 @@
+package com.esoares.financas.service;
+
+/**
+ * resultado de cada id em uma atualização de status em lote.
+ */
+public enum ResultadoAtualizacaoStatus {
+
+   ATUALIZADO,
+
+   /**
+    * o lançamento já estava no status pedido.
+    */
+   INALTERADO,
+
+   /**
+    * o id não existe ou pertence a outro usuário.
+    */
+   NAO_ENCONTRADO
+
+}
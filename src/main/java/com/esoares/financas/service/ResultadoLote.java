@@ -0,0 +1,24 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Lancamento;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * resultado de uma inclusão em lote: os lançamentos gravados, o erro de cada item rejeitado e os itens ignorados
+ * por já terem sido importados, sempre pela posição no lote.
+ */
+@Getter
+public class ResultadoLote {
+
+   private final List<Lancamento> salvos = new ArrayList<>();
+   private final Map<Integer, String> erros = new TreeMap<>();
+   private final Set<Integer> duplicados = new TreeSet<>();
+
+}
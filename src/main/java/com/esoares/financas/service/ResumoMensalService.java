@@ -0,0 +1,41 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.projection.ValoresLancamento;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ResumoMensalService {
+
+   /**
+    * aplica ao resumo mensal a diferença entre os valores anteriores e os atuais de um lançamento.
+    * Deve ser chamado na mesma transação da alteração, com os usuários envolvidos já bloqueados.
+    *
+    * @param anterior nulo na inclusão
+    * @param atual    nulo na exclusão
+    */
+   void registrarAlteracao(ValoresLancamento anterior, ValoresLancamento atual);
+
+   /**
+    * aplica ao resumo mensal a diferença de várias alterações de uma vez, uma atualização por chave.
+    *
+    * @param anteriores valores antes das alterações; vazio em inclusões
+    * @param atuais     valores depois das alterações; vazio em exclusões
+    */
+   void registrarAlteracoes(Collection<ValoresLancamento> anteriores, Collection<ValoresLancamento> atuais);
+
+   /**
+    * linhas do ano com ao menos um lançamento, ordenadas por mês, tipo e status.
+    */
+   List<ResumoMensal> obterResumo(Long idUsuario, Integer ano);
+
+   /**
+    * descarta o resumo do usuário e o recria a partir dos lançamentos, com o usuário bloqueado.
+    * Carga inicial de quem já tinha lançamentos antes do resumo e correção de divergências.
+    *
+    * @return quantidade de linhas do resumo recriadas
+    */
+   int reconstruir(Long idUsuario);
+
+}
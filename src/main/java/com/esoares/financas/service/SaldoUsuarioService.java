@@ -0,0 +1,37 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.SaldoUsuario;
+import com.esoares.financas.model.projection.ValoresLancamento;
+
+import java.util.Collection;
+
+public interface SaldoUsuarioService {
+
+   /**
+    * aplica ao saldo a diferença entre os valores anteriores e os atuais de um lançamento.
+    * Deve ser chamado na mesma transação da alteração, com os usuários envolvidos já bloqueados.
+    *
+    * @param anterior nulo na inclusão
+    * @param atual    nulo na exclusão
+    */
+   void registrarAlteracao(ValoresLancamento anterior, ValoresLancamento atual);
+
+   /**
+    * aplica ao saldo a diferença de várias alterações de uma vez, uma atualização por chave.
+    *
+    * @param anteriores valores antes das alterações; vazio em inclusões
+    * @param atuais     valores depois das alterações; vazio em exclusões
+    */
+   void registrarAlteracoes(Collection<ValoresLancamento> anteriores, Collection<ValoresLancamento> atuais);
+
+   /**
+    * saldo pela chave primária; para usuários ainda sem linha de saldo calcula a partir dos lançamentos.
+    */
+   SaldoUsuario obterSaldo(Long idUsuario);
+
+   /**
+    * recalcula o saldo a partir dos lançamentos e corrige a linha de saldo do usuário.
+    */
+   SaldoUsuario reconciliar(Long idUsuario);
+
+}
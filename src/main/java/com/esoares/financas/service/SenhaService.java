@@ -0,0 +1,18 @@
+package com.esoares.financas.service;
+
+/**
+ * hash de senhas fora da thread da requisição, em um pool limitado; com a fila cheia as operações
+ * lançam SobrecargaException em vez de esperar.
+ */
+public interface SenhaService {
+
+   String criptografar(String senha);
+
+   boolean confere(String senha, String hash);
+
+   /**
+    * indica se o hash foi gerado com um fator de custo menor que o configurado.
+    */
+   boolean precisaRecriptografar(String hash);
+
+}
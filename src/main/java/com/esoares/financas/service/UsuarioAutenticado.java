@@ -0,0 +1,23 @@
+package com.esoares.financas.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * principal montado a partir das claims do token já verificado, sem consultar o banco.
+ */
+@Data
+@AllArgsConstructor
+public class UsuarioAutenticado implements AuthenticatedPrincipal {
+
+   private Long id;
+   private String email;
+   private String nome;
+
+   @Override
+   public String getName() {
+      return email;
+   }
+
+}
@@ -0,0 +1,93 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.EmailCadastradoService;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+@Service
+public class EmailCadastradoServiceImpl implements EmailCadastradoService {
+
+   private static final Logger log = LoggerFactory.getLogger(EmailCadastradoServiceImpl.class);
+
+   private final UsuarioRepository repository;
+   private final boolean habilitado;
+   private final BloomFilter<String> filtro;
+   private final Counter ausentes;
+   private final Counter positivos;
+   private final Counter falsosPositivos;
+
+   /**
+    * até o fim da carga inicial todo e-mail "pode existir", e o cadastro segue consultando o banco.
+    */
+   private volatile boolean carregado;
+
+   public EmailCadastradoServiceImpl(UsuarioRepository repository, MeterRegistry registry,
+                                     @Value("${usuario.filtro-email.habilitado:true}") boolean habilitado,
+                                     @Value("${usuario.filtro-email.capacidade:1000000}") long capacidade,
+                                     @Value("${usuario.filtro-email.taxa-falso-positivo:0.01}") double taxaFalsoPositivo) {
+      this.repository = repository;
+      this.habilitado = habilitado;
+      this.filtro = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), capacidade, taxaFalsoPositivo);
+      this.ausentes = registry.counter("usuario.filtro-email.consultas", "resultado", "ausente");
+      this.positivos = registry.counter("usuario.filtro-email.consultas", "resultado", "positivo");
+      this.falsosPositivos = registry.counter("usuario.filtro-email.consultas", "resultado", "falso-positivo");
+      registry.gauge("usuario.filtro-email.taxa-falso-positivo-esperada", filtro, BloomFilter::expectedFpp);
+   }
+
+   @EventListener(ApplicationReadyEvent.class)
+   @Transactional(readOnly = true)
+   public void carregar() {
+      if (!habilitado) {
+         return;
+      }
+      try (Stream<String> emails = repository.streamEmails()) {
+         emails.forEach(this::registrar);
+      }
+      carregado = true;
+      log.info("Filtro de e-mails carregado, {} e-mails aproximados", filtro.approximateElementCount());
+   }
+
+   @Override
+   public boolean podeExistir(String email) {
+      if (!carregado || email == null || filtro.mightContain(normalizar(email))) {
+         return true;
+      }
+      ausentes.increment();
+      return false;
+   }
+
+   @Override
+   public void registrarConsulta(boolean existia) {
+      if (carregado) {
+         (existia ? positivos : falsosPositivos).increment();
+      }
+   }
+
+   /**
+    * a inclusão vale mesmo que a transação do cadastro desfaça o insert: o pior caso é um falso positivo.
+    */
+   @Override
+   public void registrar(String email) {
+      if (habilitado && email != null) {
+         filtro.put(normalizar(email));
+      }
+   }
+
+   private static String normalizar(String email) {
+      return email.trim().toLowerCase(Locale.ROOT);
+   }
+}
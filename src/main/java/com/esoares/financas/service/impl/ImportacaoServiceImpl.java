@@ -0,0 +1,124 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.service.ImportacaoService;
+import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.LinhaExtrato;
+import com.esoares.financas.service.ProgressoImportacao;
+import com.esoares.financas.service.ResultadoLote;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+@Service
+public class ImportacaoServiceImpl implements ImportacaoService {
+
+   private static final Logger log = LoggerFactory.getLogger(ImportacaoServiceImpl.class);
+   private static final int TAMANHO_DESCRICAO = 255;
+
+   private final LancamentoService lancamentoService;
+   private final EntityManager entityManager;
+   private final int tamanhoLote;
+
+   public ImportacaoServiceImpl(LancamentoService lancamentoService, EntityManager entityManager,
+                                @Value("${importacao.tamanho-lote:1000}") int tamanhoLote) {
+      this.lancamentoService = lancamentoService;
+      this.entityManager = entityManager;
+      this.tamanhoLote = tamanhoLote;
+   }
+
+   @Override
+   public ProgressoImportacao importar(Usuario usuario, Iterator<LinhaExtrato> linhas, Consumer<ProgressoImportacao> progresso) {
+      ProgressoImportacao resultado = new ProgressoImportacao();
+      MessageDigest digest = sha256();
+      // ocorrências da mesma movimentação no dia: duas compras iguais no mesmo dia não são duplicatas. O contador
+      // vale para o arquivo todo, já que nem todo banco exporta o extrato em ordem de data
+      Map<String, Integer> ocorrencias = new HashMap<>();
+
+      List<Lancamento> lote = new ArrayList<>(tamanhoLote);
+      List<Long> numeros = new ArrayList<>(tamanhoLote);
+      while (linhas.hasNext()) {
+         LinhaExtrato linha = linhas.next();
+         resultado.registrarLeitura();
+         if (!linha.isValida()) {
+            resultado.registrarErro(linha.getNumero(), linha.getErro());
+            continue;
+         }
+
+         String chave = linha.getData() + "|" + linha.getValor().stripTrailingZeros().toPlainString()
+                 + "|" + linha.getDescricao();
+         int ocorrencia = ocorrencias.merge(chave, 1, Integer::sum);
+         String hash = HexFormat.of().formatHex(digest.digest((chave + "|" + ocorrencia).getBytes(StandardCharsets.UTF_8)));
+
+         lote.add(converter(usuario, linha, hash));
+         numeros.add(linha.getNumero());
+         if (lote.size() == tamanhoLote) {
+            gravar(lote, numeros, resultado);
+            progresso.accept(resultado);
+         }
+      }
+      if (!lote.isEmpty()) {
+         gravar(lote, numeros, resultado);
+      }
+
+      resultado.concluir();
+      progresso.accept(resultado);
+      log.info("Importação do usuário {}: {} linhas lidas, {} importadas, {} duplicadas, {} rejeitadas",
+              usuario.getId(), resultado.getLidas(), resultado.getImportadas(),
+              resultado.getDuplicadas(), resultado.getRejeitadas());
+      return resultado;
+   }
+
+   private void gravar(List<Lancamento> lote, List<Long> numeros, ProgressoImportacao resultado) {
+      ResultadoLote gravado = lancamentoService.salvarEmLote(lote);
+      resultado.registrarImportadas(gravado.getSalvos().size());
+      resultado.registrarDuplicadas(gravado.getDuplicados().size());
+      gravado.getErros().forEach((indice, mensagem) -> resultado.registrarErro(numeros.get(indice), mensagem));
+
+      lote.clear();
+      numeros.clear();
+      // com open-in-view o contexto de persistência vive a requisição toda; sem isso guardaria o arquivo inteiro
+      entityManager.clear();
+   }
+
+   private static Lancamento converter(Usuario usuario, LinhaExtrato linha, String hash) {
+      String descricao = linha.getDescricao();
+      if (descricao != null && descricao.length() > TAMANHO_DESCRICAO) {
+         descricao = descricao.substring(0, TAMANHO_DESCRICAO);
+      }
+      return Lancamento.builder()
+              .descricao(descricao)
+              .mes(linha.getData().getMonthValue())
+              .ano(linha.getData().getYear())
+              .valor(linha.getValor().abs())
+              .tipo(linha.getValor().signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA)
+              .usuario(usuario)
+              .dataCadastro(LocalDate.now())
+              .hashImportacao(hash)
+              .build();
+   }
+
+   private static MessageDigest sha256() {
+      try {
+         return MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,227 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.service.IndiceDescricaoService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * índice invertido de trigramas das descrições, um por usuário, mantido em memória.
+ * <p>
+ * O índice só precisa não perder lançamentos: ids a mais (ex.: removidos durante a reconstrução)
+ * são descartados pela consulta ao banco, que sempre filtra pelo usuário.
+ */
+@Service
+public class IndiceDescricaoServiceImpl implements IndiceDescricaoService {
+
+   private static final Logger log = LoggerFactory.getLogger(IndiceDescricaoServiceImpl.class);
+   private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+   private static final int TAMANHO_NGRAMA = 3;
+
+   private final LancamentoRepository repository;
+   private final Map<Long, IndiceUsuario> indices = new ConcurrentHashMap<>();
+   private volatile boolean carregado;
+
+   public IndiceDescricaoServiceImpl(LancamentoRepository repository) {
+      this.repository = repository;
+   }
+
+   @Override
+   public void indexar(Lancamento lancamento) {
+      if (lancamento.getId() == null || lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+         return;
+      }
+      Long idUsuario = lancamento.getUsuario().getId();
+      Long id = lancamento.getId();
+      String descricao = lancamento.getDescricao();
+      aposCommit(() -> indice(idUsuario).incluir(id, normalizar(descricao)));
+   }
+
+   @Override
+   public void remover(Lancamento lancamento) {
+      if (lancamento.getId() == null || lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
+         return;
+      }
+      Long idUsuario = lancamento.getUsuario().getId();
+      Long id = lancamento.getId();
+      aposCommit(() -> indice(idUsuario).remover(id));
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public Set<Long> buscar(Long idUsuario, String termo) {
+      String normalizado = normalizar(termo.trim());
+      if (!carregado || idUsuario == null) {
+         return varrer(idUsuario, normalizado);
+      }
+      IndiceUsuario indice = indices.get(idUsuario);
+      if (indice == null) {
+         return Collections.emptySet();
+      }
+      return indice.buscar(normalizado);
+   }
+
+   /**
+    * mesma regra do índice sobre as descrições lidas do banco, para as buscas antes de a carga terminar
+    * e as sem usuário.
+    */
+   private Set<Long> varrer(Long idUsuario, String termo) {
+      Set<Long> ids = new HashSet<>();
+      try (Stream<LancamentoRepository.DescricaoIndexada> descricoes = idUsuario == null
+              ? repository.streamDescricoes() : repository.streamDescricoesPorUsuario(idUsuario)) {
+         descricoes.filter(d -> normalizar(d.getDescricao()).contains(termo)).forEach(d -> ids.add(d.getId()));
+      }
+      return ids;
+   }
+
+   @Override
+   @EventListener(ApplicationReadyEvent.class)
+   @Transactional(readOnly = true)
+   public void reconstruir() {
+      long inicio = System.currentTimeMillis();
+      carregado = false;
+      indices.clear();
+      try (Stream<LancamentoRepository.DescricaoIndexada> descricoes = repository.streamDescricoes()) {
+         descricoes.forEach(d -> indice(d.getIdUsuario()).incluir(d.getId(), normalizar(d.getDescricao())));
+      }
+      carregado = true;
+      log.info("Índice de descrições reconstruído: {} usuários em {} ms", indices.size(), System.currentTimeMillis() - inicio);
+   }
+
+   static String normalizar(String texto) {
+      if (texto == null) {
+         return "";
+      }
+      String semAcentos = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+      return semAcentos.toLowerCase(Locale.ROOT);
+   }
+
+   private IndiceUsuario indice(Long idUsuario) {
+      return indices.computeIfAbsent(idUsuario, id -> new IndiceUsuario());
+   }
+
+   private static void aposCommit(Runnable acao) {
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+         TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+               acao.run();
+            }
+         });
+      } else {
+         acao.run();
+      }
+   }
+
+   /**
+    * trigrama empacotado em um long (3 chars de 16 bits), evita alocar uma String por trigrama.
+    */
+   private static long trigrama(String texto, int inicio) {
+      return ((long) texto.charAt(inicio) << 32) | ((long) texto.charAt(inicio + 1) << 16) | texto.charAt(inicio + 2);
+   }
+
+   private static Set<Long> trigramas(String texto) {
+      Set<Long> resultado = new HashSet<>();
+      for (int i = 0; i + TAMANHO_NGRAMA <= texto.length(); i++) {
+         resultado.add(trigrama(texto, i));
+      }
+      return resultado;
+   }
+
+   private static final class IndiceUsuario {
+
+      private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+      private final Map<Long, String> descricoes = new HashMap<>();
+      private final Map<Long, Set<Long>> postagens = new HashMap<>();
+
+      void incluir(Long id, String descricao) {
+         lock.writeLock().lock();
+         try {
+            removerSemLock(id);
+            descricoes.put(id, descricao);
+            for (Long t : trigramas(descricao)) {
+               postagens.computeIfAbsent(t, k -> new HashSet<>()).add(id);
+            }
+         } finally {
+            lock.writeLock().unlock();
+         }
+      }
+
+      void remover(Long id) {
+         lock.writeLock().lock();
+         try {
+            removerSemLock(id);
+         } finally {
+            lock.writeLock().unlock();
+         }
+      }
+
+      Set<Long> buscar(String termo) {
+         lock.readLock().lock();
+         try {
+            if (termo.length() < TAMANHO_NGRAMA) {
+               return filtrar(descricoes.keySet(), termo);
+            }
+
+            List<Set<Long>> listas = new ArrayList<>();
+            for (Long t : trigramas(termo)) {
+               Set<Long> ids = postagens.get(t);
+               if (ids == null) {
+                  return Collections.emptySet();
+               }
+               listas.add(ids);
+            }
+            listas.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> candidatos = new HashSet<>(listas.get(0));
+            for (int i = 1; i < listas.size() && !candidatos.isEmpty(); i++) {
+               candidatos.retainAll(listas.get(i));
+            }
+            // os trigramas não garantem a ordem, a confirmação elimina os falsos positivos
+            return filtrar(candidatos, termo);
+         } finally {
+            lock.readLock().unlock();
+         }
+      }
+
+      private Set<Long> filtrar(Collection<Long> ids, String termo) {
+         Set<Long> resultado = new HashSet<>();
+         for (Long id : ids) {
+            if (descricoes.get(id).contains(termo)) {
+               resultado.add(id);
+            }
+         }
+         return resultado;
+      }
+
+      private void removerSemLock(Long id) {
+         String anterior = descricoes.remove(id);
+         if (anterior == null) {
+            return;
+         }
+         for (Long t : trigramas(anterior)) {
+            Set<Long> ids = postagens.get(t);
+            if (ids != null) {
+               ids.remove(id);
+               if (ids.isEmpty()) {
+                  postagens.remove(t);
+               }
+            }
+         }
+      }
+   }
+}
@@ -2,73 +2,250 @@ package com.esoares.financas.service.impl;
 
 import com.esoares.financas.model.entity.Usuario;
 import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.UsuarioAutenticado;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 public class JwtServiceImpl implements JwtService {
 
+   static final String METRICA_VERIFICACAO = "jwt.verificacao";
+   static final String METRICA_EMISSAO = "jwt.emissao";
+
    @Value("${jwt.expiracao}")
    private String expiracao;
 
    @Value("${jwt.chave-assinatura}")
    private String chaveAssinatura;
 
+   @Value("${jwt.cache-tokens.tamanho:10000}")
+   private long tamanhoCacheTokens;
+
+   /**
+    * chave e parser são imutáveis e seguros entre threads, então são montados uma única vez.
+    */
+   private SecretKey chave;
+   private JwtParser parser;
+
+   /**
+    * tokens já verificados, pelo digest do token (o token em si não fica em memória). Cada entrada vence junto
+    * com o token, então um acerto dispensa a verificação da assinatura sem aceitar token expirado.
+    */
+   private Cache<String, TokenVerificado> verificados;
+
+   /**
+    * jti dos tokens revogados com a expiração de cada um: a entrada vence junto com o token, depois disso o
+    * parser já o recusa. Não tem limite de tamanho: despejar uma entrada devolveria a validade a um token
+    * revogado. A memória fica limitada pelos logouts feitos dentro de uma validade de token (jwt.expiracao).
+    * A lista é local à instância, então com mais de um nó a revogação vale apenas onde o logout foi feito.
+    */
+   private Cache<String, Instant> revogados;
+
+   /**
+    * a verificação roda em toda requisição autenticada, então os timers são criados uma vez só; o resultado
+    * separa o acerto no cache da verificação da assinatura e dos tokens recusados.
+    */
+   private final Timer emissao;
+   private final Timer verificacaoCache;
+   private final Timer verificacaoAssinatura;
+   private final Timer verificacaoRecusada;
+
+   public JwtServiceImpl(MeterRegistry registry) {
+      this.emissao = registry.timer(METRICA_EMISSAO);
+      this.verificacaoCache = registry.timer(METRICA_VERIFICACAO, "resultado", "cache");
+      this.verificacaoAssinatura = registry.timer(METRICA_VERIFICACAO, "resultado", "assinatura");
+      this.verificacaoRecusada = registry.timer(METRICA_VERIFICACAO, "resultado", "recusado");
+   }
+
+   @PostConstruct
+   void iniciar() {
+      chave = Keys.hmacShaKeyFor(chaveAssinatura.getBytes(StandardCharsets.UTF_8));
+      parser = Jwts.parserBuilder().setSigningKey(chave).build();
+      verificados = Caffeine.newBuilder()
+              .maximumSize(tamanhoCacheTokens)
+              .expireAfter(new ExpiraComOToken<String, TokenVerificado>(token -> token.expiracao))
+              .build();
+      revogados = Caffeine.newBuilder()
+              .expireAfter(new ExpiraComOToken<String, Instant>(exp -> exp))
+              .build();
+   }
+
    @Override
    public String generateToken(Usuario usuario) {
+      long inicio = System.nanoTime();
+      try {
+         return gerar(usuario);
+      } finally {
+         emissao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+      }
+   }
+
+   private String gerar(Usuario usuario) {
       long exp = Long.parseLong(expiracao);
       LocalDateTime dataExp = LocalDateTime.now().plusMinutes(exp);
       Instant instant = dataExp.atZone(ZoneId.systemDefault()).toInstant();
-      SecretKey key = Keys.hmacShaKeyFor(chaveAssinatura.getBytes(StandardCharsets.UTF_8));
 
       return Jwts.builder()
+              .setId(UUID.randomUUID().toString())
+              .setIssuedAt(new Date())
               .setSubject(usuario.getEmail())
               .claim("id", usuario.getId())
               .claim("nome", usuario.getNome())
               .claim("hora-expiracao", dataExp.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")))
               .setExpiration(Date.from(instant))
-              .signWith(key, SignatureAlgorithm.HS512)
+              .signWith(chave, SignatureAlgorithm.HS512)
               .compact();
    }
 
    @Override
    public Claims obterClaims(String token) throws ExpiredJwtException {
-      SecretKey key = Keys.hmacShaKeyFor(chaveAssinatura.getBytes(StandardCharsets.UTF_8));
-      return Jwts.parserBuilder()
-              .setSigningKey(key)
-              .build()
-              .parseClaimsJws(token)
-              .getBody();
+      return parser.parseClaimsJws(token).getBody();
    }
 
    @Override
-   public boolean isTokenValido(String token) {
+   public Optional<Claims> obterClaimsValidas(String token) {
+      Claims claims;
       try {
-         Claims claims = obterClaims(token);
-         Date dataExpiracao = claims.getExpiration();
-         LocalDateTime data = dataExpiracao.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
-         return LocalDateTime.now().isBefore(data);
+         // o parser já rejeita assinatura inválida e token expirado
+         claims = obterClaims(token);
       } catch (Exception e) {
-         return false;
+         return Optional.empty();
+      }
+      if (revogado(claims.getId())) {
+         return Optional.empty();
+      }
+      return Optional.of(claims);
+   }
+
+   @Override
+   public Optional<UsuarioAutenticado> autenticar(String token) {
+      long inicio = System.nanoTime();
+      Timer timer = verificacaoCache;
+      try {
+         String digest = digest(token);
+         TokenVerificado verificado = verificados.getIfPresent(digest);
+         if (verificado == null) {
+            timer = verificacaoAssinatura;
+            Optional<Claims> claims = obterClaimsValidas(token);
+            if (claims.isEmpty()) {
+               timer = verificacaoRecusada;
+               return Optional.empty();
+            }
+            verificado = new TokenVerificado(claims.get());
+            verificados.put(digest, verificado);
+         }
+         // a revogação é consultada mesmo no acerto: o token pode ter entrado no cache antes do logout
+         if (revogado(verificado.jti)) {
+            timer = verificacaoRecusada;
+            return Optional.empty();
+         }
+         return Optional.of(verificado.usuario);
+      } finally {
+         timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
       }
    }
 
+   @Override
+   public boolean isTokenValido(String token) {
+      return autenticar(token).isPresent();
+   }
+
    @Override
    public String obterLoginUsuario(String token) {
       Claims claims = obterClaims(token);
       return claims.getSubject();
    }
+
+   @Override
+   public void revogar(String token) {
+      obterClaimsValidas(token)
+              .filter(claims -> claims.getId() != null)
+              .ifPresent(claims -> {
+                 revogados.put(claims.getId(), claims.getExpiration().toInstant());
+                 verificados.invalidate(digest(token));
+              });
+   }
+
+   private boolean revogado(String jti) {
+      return jti != null && revogados.getIfPresent(jti) != null;
+   }
+
+   private static String digest(String token) {
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+         return Base64.getEncoder().encodeToString(hash);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   /**
+    * cada entrada vence no instante de expiração do token a que se refere.
+    */
+   private static class ExpiraComOToken<K, V> implements Expiry<K, V> {
+
+      private final Function<V, Instant> expiracao;
+
+      private ExpiraComOToken(Function<V, Instant> expiracao) {
+         this.expiracao = expiracao;
+      }
+
+      @Override
+      public long expireAfterCreate(K chave, V valor, long agora) {
+         return Math.max(0, Duration.between(Instant.now(), expiracao.apply(valor)).toNanos());
+      }
+
+      @Override
+      public long expireAfterUpdate(K chave, V valor, long agora, long restante) {
+         return restante;
+      }
+
+      @Override
+      public long expireAfterRead(K chave, V valor, long agora, long restante) {
+         return restante;
+      }
+   }
+
+   private static class TokenVerificado {
+      private final UsuarioAutenticado usuario;
+      private final String jti;
+      private final Instant expiracao;
+
+      private TokenVerificado(Claims claims) {
+         this.usuario = new UsuarioAutenticado(
+                 claims.get("id", Long.class),
+                 claims.getSubject(),
+                 claims.get("nome", String.class));
+         this.jti = claims.getId();
+         this.expiracao = claims.getExpiration().toInstant();
+      }
+   }
 }
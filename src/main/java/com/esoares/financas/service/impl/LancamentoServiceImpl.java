@@ -1,28 +1,72 @@
 package com.esoares.financas.service.impl;
 
+import com.esoares.financas.exception.ConflitoVersaoException;
 import com.esoares.financas.exception.RegraNegocioException;
 import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.SaldoUsuario;
 import com.esoares.financas.model.enums.StatusLancamento;
-import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.projection.ValoresLancamento;
+import com.esoares.financas.model.repository.LancamentoFiltro;
 import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.model.repository.LancamentoSpecifications;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.IndiceDescricaoService;
 import com.esoares.financas.service.LancamentoService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import com.esoares.financas.service.ResultadoAtualizacaoStatus;
+import com.esoares.financas.service.ResultadoLote;
+import com.esoares.financas.service.ResumoMensalService;
+import com.esoares.financas.service.SaldoUsuarioService;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "lancamento.service", histogram = true)
 public class LancamentoServiceImpl implements LancamentoService {
 
+   /**
+    * ids por comando update/select no lote de status e na busca por descrição, para manter o IN dentro de
+    * limites razoáveis.
+    */
+   public static final int TAMANHO_BLOCO = 500;
+
    private final LancamentoRepository repository;
+   private final UsuarioRepository usuarioRepository;
+   private final EntityManager entityManager;
+   private final IndiceDescricaoService indiceDescricao;
+   private final SaldoUsuarioService saldoUsuarioService;
+   private final ResumoMensalService resumoMensalService;
 
-   public LancamentoServiceImpl(LancamentoRepository repository) {
+   public LancamentoServiceImpl(LancamentoRepository repository, UsuarioRepository usuarioRepository,
+                                EntityManager entityManager, IndiceDescricaoService indiceDescricao,
+                                SaldoUsuarioService saldoUsuarioService, ResumoMensalService resumoMensalService) {
       this.repository = repository;
+      this.usuarioRepository = usuarioRepository;
+      this.entityManager = entityManager;
+      this.indiceDescricao = indiceDescricao;
+      this.saldoUsuarioService = saldoUsuarioService;
+      this.resumoMensalService = resumoMensalService;
    }
 
    @Override
@@ -30,29 +74,241 @@ public class LancamentoServiceImpl implements LancamentoService {
    public Lancamento salvar(Lancamento lancamento) {
       validar(lancamento);
       lancamento.setStatus(StatusLancamento.PENDENTE);
-      return repository.save(lancamento);
+      travarUsuario(ValoresLancamento.de(lancamento));
+      Lancamento salvo = repository.save(lancamento);
+      registrarAlteracao(null, ValoresLancamento.de(salvo));
+      indiceDescricao.indexar(salvo);
+      return salvo;
+   }
+
+   @Override
+   @Transactional
+   public ResultadoLote salvarEmLote(List<Lancamento> lancamentos) {
+      ResultadoLote resultado = new ResultadoLote();
+      // posição original de cada válido, para reportar erros e duplicados pela posição no lote
+      List<Lancamento> validos = new ArrayList<>(lancamentos.size());
+      List<Integer> posicoes = new ArrayList<>(lancamentos.size());
+      for (int i = 0; i < lancamentos.size(); i++) {
+         Lancamento lancamento = lancamentos.get(i);
+         try {
+            validar(lancamento);
+            lancamento.setStatus(StatusLancamento.PENDENTE);
+            validos.add(lancamento);
+            posicoes.add(i);
+         } catch (RegraNegocioException e) {
+            resultado.getErros().put(i, e.getMessage());
+         }
+      }
+      if (validos.isEmpty()) {
+         return resultado;
+      }
+
+      // em ordem de id, para que dois lotes com os mesmos usuários não se bloqueiem mutuamente
+      Set<Long> usuarios = validos.stream()
+              .map(lancamento -> lancamento.getUsuario().getId())
+              .collect(Collectors.toCollection(TreeSet::new));
+      usuarios.forEach(usuarioRepository::travarPorId);
+
+      // com os usuários bloqueados, uma importação concorrente do mesmo extrato não passa desta verificação
+      Set<Integer> importados = obterImportados(usuarios, validos);
+      List<Lancamento> novos = new ArrayList<>(validos.size());
+      for (int i = 0; i < validos.size(); i++) {
+         if (importados.contains(i)) {
+            resultado.getDuplicados().add(posicoes.get(i));
+         } else {
+            novos.add(validos.get(i));
+         }
+      }
+      if (novos.isEmpty()) {
+         return resultado;
+      }
+
+      // ids vêm da sequência em memória; os inserts saem em lotes no flush
+      List<Lancamento> salvos = repository.saveAll(novos);
+      entityManager.flush();
+
+      List<ValoresLancamento> incluidos = salvos.stream().map(ValoresLancamento::de).toList();
+      registrarAlteracoes(List.of(), incluidos);
+      salvos.forEach(indiceDescricao::indexar);
+
+      resultado.getSalvos().addAll(salvos);
+      return resultado;
+   }
+
+   /**
+    * posições, em {@code lancamentos}, dos que têm hash de importação já gravado para o mesmo usuário.
+    */
+   private Set<Integer> obterImportados(Set<Long> usuarios, List<Lancamento> lancamentos) {
+      Set<Integer> importados = new HashSet<>();
+      for (Long idUsuario : usuarios) {
+         List<String> hashes = lancamentos.stream()
+                 .filter(lancamento -> idUsuario.equals(lancamento.getUsuario().getId()))
+                 .map(Lancamento::getHashImportacao)
+                 .filter(Objects::nonNull)
+                 .toList();
+         if (hashes.isEmpty()) {
+            continue;
+         }
+         Set<String> gravados = repository.obterHashesImportados(idUsuario, hashes);
+         for (int i = 0; i < lancamentos.size(); i++) {
+            Lancamento lancamento = lancamentos.get(i);
+            if (idUsuario.equals(lancamento.getUsuario().getId()) && gravados.contains(lancamento.getHashImportacao())) {
+               importados.add(i);
+            }
+         }
+      }
+      return importados;
    }
 
    @Override
    @Transactional
    public Lancamento atualizar(Lancamento lancamento) {
       Objects.requireNonNull(lancamento.getId());
+      Objects.requireNonNull(lancamento.getVersao());
       validar(lancamento);
-      return repository.save(lancamento);
+      ValoresLancamento atual = ValoresLancamento.de(lancamento);
+      travarUsuario(atual);
+      // lido antes do update, que pode receber uma instância já gerenciada e alterada
+      ValoresLancamento anterior = repository.obterValores(lancamento.getId())
+              .orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de dados."));
+      if (!Objects.equals(anterior.getIdUsuario(), atual.getIdUsuario())) {
+         travarUsuario(anterior);
+      }
+      if (repository.atualizarNaVersao(lancamento) == 0) {
+         throw conflito(lancamento.getId());
+      }
+      lancamento.setVersao(lancamento.getVersao() + 1);
+      registrarAlteracao(anterior, atual);
+      indiceDescricao.indexar(lancamento);
+      return lancamento;
    }
 
    @Override
    @Transactional
    public void deletar(Lancamento lancamento) {
       Objects.requireNonNull(lancamento.getId());
+      ValoresLancamento anterior = repository.obterValores(lancamento.getId()).orElse(null);
+      travarUsuario(anterior);
       repository.delete(lancamento);
+      registrarAlteracao(anterior, null);
+      indiceDescricao.remover(lancamento);
+   }
+
+   /**
+    * bloqueia o usuário antes de qualquer escrita: as alterações de um mesmo usuário já se serializam na linha
+    * de saldo, e travar primeiro evita promover a trava compartilhada que a chave estrangeira do lançamento
+    * obtém sobre o usuário, o que geraria deadlock entre duas inclusões concorrentes.
+    */
+   private void travarUsuario(ValoresLancamento valores) {
+      if (valores != null) {
+         travarUsuario(valores.getIdUsuario());
+      }
+   }
+
+   private void travarUsuario(Long idUsuario) {
+      if (idUsuario != null) {
+         usuarioRepository.travarPorId(idUsuario);
+      }
+   }
+
+   /**
+    * mantém os agregados na mesma transação da alteração, sempre na mesma ordem para não inverter bloqueios.
+    */
+   private void registrarAlteracao(ValoresLancamento anterior, ValoresLancamento atual) {
+      saldoUsuarioService.registrarAlteracao(anterior, atual);
+      resumoMensalService.registrarAlteracao(anterior, atual);
+   }
+
+   private void registrarAlteracoes(List<ValoresLancamento> anteriores, List<ValoresLancamento> atuais) {
+      saldoUsuarioService.registrarAlteracoes(anteriores, atuais);
+      resumoMensalService.registrarAlteracoes(anteriores, atuais);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public List<LancamentoProjecao> buscar(LancamentoFiltro filtro) {
+      return buscarProjecoes(filtro, null, null);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public Window<LancamentoProjecao> buscar(LancamentoFiltro filtro, Long apos, int limite) {
+      // uma linha a mais só para saber se existe próxima página
+      List<LancamentoProjecao> linhas = buscarProjecoes(filtro, apos, limite + 1);
+      boolean temProxima = linhas.size() > limite;
+      List<LancamentoProjecao> itens = temProxima ? linhas.subList(0, limite) : linhas;
+
+      return Window.from(itens, indice -> ScrollPosition.forward(Map.of("id", itens.get(indice).getId())), temProxima);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public long contar(LancamentoFiltro filtro) {
+      List<List<Long>> blocos = blocosPorDescricao(filtro, null);
+      if (blocos == null) {
+         return repository.count(LancamentoSpecifications.porFiltro(filtro));
+      }
+      long total = 0;
+      for (List<Long> bloco : blocos) {
+         total += repository.count(porBloco(filtro, bloco));
+      }
+      return total;
    }
 
    @Override
    @Transactional(readOnly = true)
-   public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-      Example example = Example.of(lancamentoFiltro, ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-      return repository.findAll(example);
+   public void exportar(Long idUsuario, Consumer<Lancamento> consumidor) {
+      try (Stream<Lancamento> lancamentos = repository.streamPorUsuario(idUsuario)) {
+         lancamentos.forEach(lancamento -> {
+            consumidor.accept(lancamento);
+            // usuario é lazy: o conversor só lê o id do proxy, que não dispara consulta
+            entityManager.detach(lancamento);
+         });
+      }
+   }
+
+   /**
+    * com descrição, os blocos de ids são consultados em ordem crescente até juntar o limite; como cada consulta
+    * também ordena por id, o resultado sai na mesma ordem de uma consulta única.
+    */
+   private List<LancamentoProjecao> buscarProjecoes(LancamentoFiltro filtro, Long apos, Integer limite) {
+      List<List<Long>> blocos = blocosPorDescricao(filtro, apos);
+      if (blocos == null) {
+         return repository.buscarProjecoes(LancamentoSpecifications.porFiltro(filtro), apos, limite);
+      }
+      List<LancamentoProjecao> linhas = new ArrayList<>();
+      for (List<Long> bloco : blocos) {
+         if (limite != null && linhas.size() >= limite) {
+            break;
+         }
+         linhas.addAll(repository.buscarProjecoes(porBloco(filtro, bloco), null,
+                 limite == null ? null : limite - linhas.size()));
+      }
+      return linhas;
+   }
+
+   /**
+    * o texto vira o conjunto de ids do índice, que não diferencia maiúsculas nem acentos; termos curtos ou
+    * comuns casam com muitos lançamentos, então os ids seguem em blocos em vez de um IN sem limite.
+    * Nulo quando o filtro não tem descrição.
+    */
+   private List<List<Long>> blocosPorDescricao(LancamentoFiltro filtro, Long apos) {
+      if (filtro.getDescricao() == null || filtro.getDescricao().isBlank()) {
+         return null;
+      }
+      List<Long> ids = indiceDescricao.buscar(filtro.getIdUsuario(), filtro.getDescricao()).stream()
+              .filter(id -> apos == null || id > apos)
+              .sorted()
+              .toList();
+      List<List<Long>> blocos = new ArrayList<>();
+      for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO) {
+         blocos.add(ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, ids.size())));
+      }
+      return blocos;
+   }
+
+   private static Specification<Lancamento> porBloco(LancamentoFiltro filtro, List<Long> bloco) {
+      return Specification.where(LancamentoSpecifications.porFiltro(filtro)).and(LancamentoSpecifications.idEm(bloco));
    }
 
    @Override
@@ -62,6 +318,64 @@ public class LancamentoServiceImpl implements LancamentoService {
       atualizar(lancamento);
    }
 
+   @Override
+   @Transactional
+   public LancamentoProjecao atualizarStatus(Long id, StatusLancamento status, Long versao) {
+      LancamentoProjecao lancamento = repository.findProjecaoById(id)
+              .orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de dados."));
+      travarUsuario(lancamento.getIdUsuario());
+      // a leitura veio antes da trava: com a versão igual, os valores lidos são os que o update vai substituir
+      if (!Objects.equals(lancamento.getVersao(), versao)
+              || repository.atualizarStatusNaVersao(id, status, versao) == 0) {
+         throw conflito(id);
+      }
+      ValoresLancamento anterior = ValoresLancamento.de(lancamento);
+      registrarAlteracao(anterior, anterior.comStatus(status));
+      lancamento.setStatus(status);
+      lancamento.setVersao(versao + 1);
+      return lancamento;
+   }
+
+   private static ConflitoVersaoException conflito(Long id) {
+      return new ConflitoVersaoException("O lançamento " + id + " foi alterado por outra operação. " +
+              "Consulte a versão atual e tente novamente.");
+   }
+
+   @Override
+   @Transactional
+   public Map<Long, ResultadoAtualizacaoStatus> atualizarStatusEmLote(Long idUsuario, Collection<Long> ids,
+                                                                      StatusLancamento status) {
+      Map<Long, ResultadoAtualizacaoStatus> resultado = new LinkedHashMap<>();
+      ids.forEach(id -> resultado.put(id, ResultadoAtualizacaoStatus.NAO_ENCONTRADO));
+      travarUsuario(idUsuario);
+
+      List<Long> distintos = new ArrayList<>(resultado.keySet());
+      List<ValoresLancamento> anteriores = new ArrayList<>();
+      List<ValoresLancamento> atuais = new ArrayList<>();
+      for (int inicio = 0; inicio < distintos.size(); inicio += TAMANHO_BLOCO) {
+         List<Long> bloco = distintos.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, distintos.size()));
+         List<Long> alterados = new ArrayList<>(bloco.size());
+         // com o usuário bloqueado, os valores lidos continuam válidos até o update
+         for (LancamentoProjecao lancamento : repository.obterProjecoesPorUsuarioEIds(idUsuario, bloco)) {
+            if (lancamento.getStatus() == status) {
+               resultado.put(lancamento.getId(), ResultadoAtualizacaoStatus.INALTERADO);
+               continue;
+            }
+            resultado.put(lancamento.getId(), ResultadoAtualizacaoStatus.ATUALIZADO);
+            alterados.add(lancamento.getId());
+            ValoresLancamento anterior = ValoresLancamento.de(lancamento);
+            anteriores.add(anterior);
+            atuais.add(anterior.comStatus(status));
+         }
+         if (!alterados.isEmpty()) {
+            repository.atualizarStatus(idUsuario, alterados, status);
+         }
+      }
+
+      registrarAlteracoes(anteriores, atuais);
+      return resultado;
+   }
+
    @Override
    public void validar(Lancamento lancamento) {
       if (lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
@@ -90,19 +404,29 @@ public class LancamentoServiceImpl implements LancamentoService {
       return lancamento;
    }
 
+   /**
+    * sem readOnly, para ler do primário: na atualização sem If-Match a versão lida aqui vira a condição do
+    * update, e a de uma réplica atrasada daria conflito (409) sem ninguém ter alterado o lançamento.
+    */
    @Override
    @Transactional
-   public BigDecimal obterSaldoPorUsuario(Long id) {
-      BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-      BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+   public Optional<LancamentoProjecao> obterProjecaoPorId(Long id) {
+      return repository.findProjecaoById(id);
+   }
 
-      if(receitas == null) {
-         receitas = BigDecimal.ZERO;
-      }
-      if(despesas == null) {
-         despesas = BigDecimal.ZERO;
-      }
+   @Override
+   @Transactional(readOnly = true)
+   public BigDecimal obterSaldoPorUsuario(Long id) {
+      return saldoUsuarioService.obterSaldo(id).getSaldoEfetivado();
+   }
 
-      return receitas.subtract(despesas);
+   @Override
+   @Transactional(readOnly = true)
+   public Map<StatusLancamento, BigDecimal> obterSaldoPorStatus(Long id) {
+      SaldoUsuario saldo = saldoUsuarioService.obterSaldo(id);
+      Map<StatusLancamento, BigDecimal> saldos = new EnumMap<>(StatusLancamento.class);
+      saldos.put(StatusLancamento.PENDENTE, saldo.getSaldoPendente());
+      saldos.put(StatusLancamento.EFETIVADO, saldo.getSaldoEfetivado());
+      return saldos;
    }
 }
@@ -0,0 +1,127 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.exception.ErroAutenticacao;
+import com.esoares.financas.model.entity.RefreshToken;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.RefreshTokenRepository;
+import com.esoares.financas.service.RefreshTokenService;
+import com.esoares.financas.service.Renovacao;
+import com.esoares.financas.service.UsuarioService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+@Service
+public class RefreshTokenServiceImpl implements RefreshTokenService {
+
+   private static final Logger log = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
+
+   private final RefreshTokenRepository repository;
+   private final UsuarioService usuarioService;
+   private final SecureRandom random = new SecureRandom();
+
+   @Value("${jwt.refresh.expiracao-dias:30}")
+   private long expiracaoDias;
+
+   /**
+    * por quanto tempo um token usado continua gravado depois de emitido; durante esse tempo, reapresentá-lo
+    * revoga a família. Depois ele é apagado e passa a ser só um token desconhecido.
+    */
+   @Value("${jwt.refresh.retencao-usados-dias:7}")
+   private long retencaoUsadosDias;
+
+   public RefreshTokenServiceImpl(RefreshTokenRepository repository, UsuarioService usuarioService) {
+      this.repository = repository;
+      this.usuarioService = usuarioService;
+   }
+
+   @Override
+   @Transactional
+   public String emitir(Usuario usuario) {
+      return criar(usuario.getId(), UUID.randomUUID().toString());
+   }
+
+   /**
+    * a revogação da família precisa ser gravada mesmo com a exceção que recusa o token reutilizado.
+    */
+   @Override
+   @Transactional(noRollbackFor = ErroAutenticacao.class)
+   public Renovacao renovar(String refreshToken) {
+      RefreshToken atual = repository.findByHash(hash(refreshToken))
+              .orElseThrow(() -> new ErroAutenticacao("Refresh token inválido."));
+
+      if (atual.isUsado() || repository.marcarUsado(atual.getId()) == 0) {
+         // um token já trocado voltou: o valor vazou ou foi copiado, então nenhum token da família vale mais
+         repository.revogarFamilia(atual.getFamilia());
+         log.warn("Refresh token reutilizado para o usuário {}, família {} revogada", atual.getIdUsuario(), atual.getFamilia());
+         throw new ErroAutenticacao("Refresh token já utilizado, autentique-se novamente.");
+      }
+      if (atual.getExpiracao().isBefore(LocalDateTime.now())) {
+         throw new ErroAutenticacao("Refresh token expirado, autentique-se novamente.");
+      }
+
+      Usuario usuario = usuarioService.obterPorId(atual.getIdUsuario())
+              .orElseThrow(() -> new ErroAutenticacao("Usuário não encontrado."));
+      return new Renovacao(usuario, criar(usuario.getId(), atual.getFamilia()));
+   }
+
+   @Override
+   @Transactional
+   public void revogar(String refreshToken) {
+      repository.findByHash(hash(refreshToken))
+              .ifPresent(token -> repository.revogarFamilia(token.getFamilia()));
+   }
+
+   /**
+    * cada login e cada renovação gravam uma linha, então sem esta limpeza a tabela só cresce.
+    */
+   @Override
+   @Transactional
+   @Scheduled(cron = "${jwt.refresh.limpeza.cron:0 0 4 * * *}")
+   public int removerVencidos() {
+      LocalDateTime agora = LocalDateTime.now();
+      // a expiração é a emissão mais a validade, então o limite dos usados conta a retenção a partir da emissão
+      LocalDateTime limiteUsados = agora.plusDays(Math.max(0, expiracaoDias - retencaoUsadosDias));
+      int removidos = repository.removerVencidos(agora, limiteUsados);
+      log.info("Limpeza de refresh tokens: {} removidos", removidos);
+      return removidos;
+   }
+
+   private String criar(Long idUsuario, String familia) {
+      byte[] bytes = new byte[32];
+      random.nextBytes(bytes);
+      String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+      repository.save(RefreshToken.builder()
+              .hash(hash(valor))
+              .familia(familia)
+              .idUsuario(idUsuario)
+              .expiracao(LocalDateTime.now().plusDays(expiracaoDias))
+              .build());
+      return valor;
+   }
+
+   /**
+    * o token tem 256 bits aleatórios, então um hash rápido basta: não há o que adivinhar por força bruta.
+    */
+   private static String hash(String valor) {
+      try {
+         byte[] hash = MessageDigest.getInstance("SHA-256").digest(valor.getBytes(StandardCharsets.UTF_8));
+         return HexFormat.of().formatHex(hash);
+      } catch (NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+}
@@ -0,0 +1,123 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.entity.ResumoMensalId;
+import com.esoares.financas.model.projection.ValoresLancamento;
+import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.model.repository.ResumoMensalRepository;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.ResumoMensalService;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@Service
+public class ResumoMensalServiceImpl implements ResumoMensalService {
+
+   /**
+    * ordem fixa das chaves: transações que alteram as mesmas linhas as bloqueiam na mesma sequência.
+    */
+   private static final Comparator<ResumoMensalId> ORDEM = Comparator
+           .comparing(ResumoMensalId::getIdUsuario)
+           .thenComparing(ResumoMensalId::getAno)
+           .thenComparing(ResumoMensalId::getMes)
+           .thenComparing(ResumoMensalId::getTipo)
+           .thenComparing(ResumoMensalId::getStatus);
+
+   private final ResumoMensalRepository repository;
+   private final LancamentoRepository lancamentoRepository;
+   private final UsuarioRepository usuarioRepository;
+   private final EntityManager entityManager;
+
+   public ResumoMensalServiceImpl(ResumoMensalRepository repository, LancamentoRepository lancamentoRepository,
+                                  UsuarioRepository usuarioRepository, EntityManager entityManager) {
+      this.repository = repository;
+      this.lancamentoRepository = lancamentoRepository;
+      this.usuarioRepository = usuarioRepository;
+      this.entityManager = entityManager;
+   }
+
+   @Override
+   @Transactional(propagation = Propagation.MANDATORY)
+   public void registrarAlteracao(ValoresLancamento anterior, ValoresLancamento atual) {
+      Map<ResumoMensalId, Diferenca> diferencas = new TreeMap<>(ORDEM);
+      acumular(diferencas, anterior, -1);
+      acumular(diferencas, atual, 1);
+
+      diferencas.forEach(this::aplicar);
+   }
+
+   @Override
+   @Transactional(propagation = Propagation.MANDATORY)
+   public void registrarAlteracoes(Collection<ValoresLancamento> anteriores, Collection<ValoresLancamento> atuais) {
+      Map<ResumoMensalId, Diferenca> diferencas = new TreeMap<>(ORDEM);
+      anteriores.forEach(valores -> acumular(diferencas, valores, -1));
+      atuais.forEach(valores -> acumular(diferencas, valores, 1));
+
+      diferencas.forEach(this::aplicar);
+   }
+
+   @Override
+   @Transactional(readOnly = true)
+   public List<ResumoMensal> obterResumo(Long idUsuario, Integer ano) {
+      return repository.obterPorUsuarioEAno(idUsuario, ano);
+   }
+
+   @Override
+   @Transactional
+   public int reconstruir(Long idUsuario) {
+      // com o usuário bloqueado, nenhuma alteração concorrente de lançamentos avança até o commit
+      usuarioRepository.travarPorId(idUsuario);
+      entityManager.flush();
+      repository.excluirPorUsuario(idUsuario);
+      int linhas = repository.incluirPorUsuario(idUsuario);
+      entityManager.clear();
+      return linhas;
+   }
+
+   private void aplicar(ResumoMensalId id, Diferenca diferenca) {
+      if (diferenca.total.signum() == 0 && diferenca.quantidade == 0) {
+         return;
+      }
+      if (repository.somar(id, diferenca.total, diferenca.quantidade) > 0) {
+         return;
+      }
+
+      // chave sem linha: o usuário já está bloqueado por esta transação, então a linha nasce dos lançamentos,
+      // que depois do flush incluem esta alteração
+      entityManager.flush();
+      LancamentoRepository.TotalPorPeriodo total = lancamentoRepository.obterTotalPorPeriodo(
+              id.getIdUsuario(), id.getAno(), id.getMes(), id.getTipo(), id.getStatus());
+      entityManager.persist(ResumoMensal.builder()
+              .id(id)
+              .total(total.getTotal())
+              .quantidade(total.getQuantidade())
+              .build());
+      entityManager.flush();
+   }
+
+   private static void acumular(Map<ResumoMensalId, Diferenca> diferencas, ValoresLancamento valores, int sinal) {
+      if (valores == null || valores.getIdUsuario() == null || valores.getAno() == null || valores.getMes() == null
+              || valores.getTipo() == null || valores.getStatus() == null || valores.getValor() == null) {
+         return;
+      }
+      ResumoMensalId id = new ResumoMensalId(valores.getIdUsuario(), valores.getAno(), valores.getMes(),
+              valores.getTipo(), valores.getStatus());
+      Diferenca diferenca = diferencas.computeIfAbsent(id, chave -> new Diferenca());
+      diferenca.total = diferenca.total.add(sinal > 0 ? valores.getValor() : valores.getValor().negate());
+      diferenca.quantidade += sinal;
+   }
+
+   private static class Diferenca {
+      private BigDecimal total = BigDecimal.ZERO;
+      private long quantidade;
+   }
+}
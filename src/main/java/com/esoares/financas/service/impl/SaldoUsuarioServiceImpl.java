@@ -0,0 +1,162 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.config.CacheConfiguration;
+import com.esoares.financas.model.entity.SaldoUsuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.projection.ValoresLancamento;
+import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.model.repository.SaldoUsuarioRepository;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.SaldoUsuarioService;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+   private static final Logger log = LoggerFactory.getLogger(SaldoUsuarioServiceImpl.class);
+
+   private final SaldoUsuarioRepository repository;
+   private final LancamentoRepository lancamentoRepository;
+   private final UsuarioRepository usuarioRepository;
+   private final EntityManager entityManager;
+   private final Cache saldos;
+
+   public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository,
+                                  UsuarioRepository usuarioRepository, EntityManager entityManager,
+                                  CacheManager cacheManager) {
+      this.repository = repository;
+      this.lancamentoRepository = lancamentoRepository;
+      this.usuarioRepository = usuarioRepository;
+      this.entityManager = entityManager;
+      this.saldos = cacheManager.getCache(CacheConfiguration.SALDOS);
+   }
+
+   @Override
+   @Transactional(propagation = Propagation.MANDATORY)
+   public void registrarAlteracao(ValoresLancamento anterior, ValoresLancamento atual) {
+      // o lançamento pode ter trocado de usuário, então a diferença é acumulada por usuário
+      Map<Long, BigDecimal[]> diferencas = new HashMap<>();
+      acumular(diferencas, anterior, -1);
+      acumular(diferencas, atual, 1);
+
+      diferencas.forEach((idUsuario, diferenca) -> aplicar(idUsuario, diferenca[0], diferenca[1]));
+   }
+
+   @Override
+   @Transactional(propagation = Propagation.MANDATORY)
+   public void registrarAlteracoes(Collection<ValoresLancamento> anteriores, Collection<ValoresLancamento> atuais) {
+      Map<Long, BigDecimal[]> diferencas = new HashMap<>();
+      anteriores.forEach(valores -> acumular(diferencas, valores, -1));
+      atuais.forEach(valores -> acumular(diferencas, valores, 1));
+
+      diferencas.forEach((idUsuario, diferenca) -> aplicar(idUsuario, diferenca[0], diferenca[1]));
+   }
+
+   /**
+    * sync garante uma única carga por usuário; a remoção feita após o commit de uma alteração
+    * espera a carga em andamento e a descarta, então um valor lido antes da escrita não sobrevive a ela.
+    * A transação não é readOnly para que a carga leia do primário: um valor vindo de uma réplica atrasada
+    * ficaria no cache até a próxima alteração.
+    */
+   @Override
+   @Cacheable(cacheNames = CacheConfiguration.SALDOS, key = "#idUsuario", sync = true)
+   @Transactional
+   public SaldoUsuario obterSaldo(Long idUsuario) {
+      return repository.findById(idUsuario).orElseGet(() -> calcular(idUsuario));
+   }
+
+   @Override
+   @Transactional
+   public SaldoUsuario reconciliar(Long idUsuario) {
+      saldos.evict(idUsuario);
+      // com o usuário bloqueado, nenhuma alteração concorrente de lançamentos avança até o commit
+      usuarioRepository.travarPorId(idUsuario);
+      Optional<SaldoUsuario> atual = repository.findById(idUsuario);
+      if (atual.isEmpty()) {
+         return inicializar(idUsuario);
+      }
+
+      SaldoUsuario saldo = atual.get();
+      SaldoUsuario calculado = calcular(idUsuario);
+      if (saldo.getSaldoEfetivado().compareTo(calculado.getSaldoEfetivado()) != 0
+              || saldo.getSaldoPendente().compareTo(calculado.getSaldoPendente()) != 0) {
+         log.warn("Saldo do usuário {} divergente: efetivado {} -> {}, pendente {} -> {}", idUsuario,
+                 saldo.getSaldoEfetivado(), calculado.getSaldoEfetivado(),
+                 saldo.getSaldoPendente(), calculado.getSaldoPendente());
+         saldo.setSaldoEfetivado(calculado.getSaldoEfetivado());
+         saldo.setSaldoPendente(calculado.getSaldoPendente());
+      }
+      return saldo;
+   }
+
+   private void aplicar(Long idUsuario, BigDecimal efetivado, BigDecimal pendente) {
+      if (efetivado.signum() == 0 && pendente.signum() == 0) {
+         return;
+      }
+      // o cache é transacional: a remoção só acontece depois do commit
+      saldos.evict(idUsuario);
+      if (repository.somar(idUsuario, efetivado, pendente) > 0) {
+         return;
+      }
+
+      // primeira alteração desde a criação da tabela: o usuário já está bloqueado por esta transação,
+      // então a linha nasce do histórico, que depois do flush inclui esta alteração
+      entityManager.flush();
+      inicializar(idUsuario);
+   }
+
+   private SaldoUsuario inicializar(Long idUsuario) {
+      SaldoUsuario saldo = calcular(idUsuario);
+      entityManager.persist(saldo);
+      entityManager.flush();
+      return saldo;
+   }
+
+   private SaldoUsuario calcular(Long idUsuario) {
+      SaldoUsuario saldo = SaldoUsuario.builder()
+              .idUsuario(idUsuario)
+              .saldoEfetivado(BigDecimal.ZERO)
+              .saldoPendente(BigDecimal.ZERO)
+              .build();
+      for (LancamentoRepository.SaldoPorStatus saldoPorStatus : lancamentoRepository.obterSaldoPorStatus(idUsuario)) {
+         if (saldoPorStatus.getStatus() == StatusLancamento.EFETIVADO) {
+            saldo.setSaldoEfetivado(saldoPorStatus.getSaldo());
+         } else if (saldoPorStatus.getStatus() == StatusLancamento.PENDENTE) {
+            saldo.setSaldoPendente(saldoPorStatus.getSaldo());
+         }
+      }
+      return saldo;
+   }
+
+   private static void acumular(Map<Long, BigDecimal[]> diferencas, ValoresLancamento valores, int sinal) {
+      if (valores == null || valores.getIdUsuario() == null || valores.getStatus() == null) {
+         return;
+      }
+      int posicao;
+      if (valores.getStatus() == StatusLancamento.EFETIVADO) {
+         posicao = 0;
+      } else if (valores.getStatus() == StatusLancamento.PENDENTE) {
+         posicao = 1;
+      } else {
+         return;
+      }
+      BigDecimal[] diferenca = diferencas.computeIfAbsent(valores.getIdUsuario(),
+              id -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+      BigDecimal valor = valores.getValorComSinal();
+      diferenca[posicao] = diferenca[posicao].add(sinal > 0 ? valor : valor.negate());
+   }
+}
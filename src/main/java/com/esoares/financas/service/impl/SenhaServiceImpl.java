@@ -0,0 +1,112 @@
+package com.esoares.financas.service.impl;
+
+import com.esoares.financas.exception.SobrecargaException;
+import com.esoares.financas.service.SenhaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@Service
+public class SenhaServiceImpl implements SenhaService {
+
+   static final String METRICA_ESPERA = "senha.hash.espera";
+   static final String METRICA_DURACAO = "senha.hash.duracao";
+   static final String METRICA_REJEITADAS = "senha.hash.rejeitadas";
+
+   private final PasswordEncoder encoder;
+   private final MeterRegistry registry;
+   private final ThreadPoolExecutor executor;
+   private final Counter rejeitadas;
+   private final long retryAfterSegundos;
+
+   /**
+    * o BCrypt ocupa um núcleo inteiro por chamada: com poucas threads e fila curta, um pico de logins
+    * não toma todos os núcleos das demais requisições, e o excedente é recusado na hora.
+    *
+    * @param threads 0 usa metade dos processadores disponíveis (no mínimo um), deixando a outra metade
+    *                para as requisições que não fazem hash
+    */
+   public SenhaServiceImpl(PasswordEncoder encoder, MeterRegistry registry,
+                           @Value("${senha.hash.threads:0}") int threads,
+                           @Value("${senha.hash.fila:64}") int fila,
+                           @Value("${senha.hash.retry-after:1}") long retryAfterSegundos) {
+      this.encoder = encoder;
+      this.registry = registry;
+      this.retryAfterSegundos = retryAfterSegundos;
+      int tamanho = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+      this.executor = new ThreadPoolExecutor(tamanho, tamanho, 0L, TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("hash-senha-"),
+              new ThreadPoolExecutor.AbortPolicy());
+      this.rejeitadas = registry.counter(METRICA_REJEITADAS);
+      registry.gauge("senha.hash.fila", executor.getQueue(), Collection::size);
+   }
+
+   @Override
+   public String criptografar(String senha) {
+      return executar("criptografar", () -> encoder.encode(senha));
+   }
+
+   @Override
+   public boolean confere(String senha, String hash) {
+      return executar("conferir", () -> encoder.matches(senha, hash));
+   }
+
+   @Override
+   public boolean precisaRecriptografar(String hash) {
+      return encoder.upgradeEncoding(hash);
+   }
+
+   private <T> T executar(String operacao, Supplier<T> tarefa) {
+      Timer espera = registry.timer(METRICA_ESPERA, "operacao", operacao);
+      Timer duracao = registry.timer(METRICA_DURACAO, "operacao", operacao);
+      long enfileiradoEm = System.nanoTime();
+
+      Future<T> futuro;
+      try {
+         futuro = executor.submit(() -> {
+            long inicio = System.nanoTime();
+            espera.record(inicio - enfileiradoEm, TimeUnit.NANOSECONDS);
+            try {
+               return tarefa.get();
+            } finally {
+               duracao.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            }
+         });
+      } catch (RejectedExecutionException e) {
+         rejeitadas.increment();
+         throw new SobrecargaException("Servidor ocupado, tente novamente em instantes.", retryAfterSegundos);
+      }
+
+      try {
+         return futuro.get();
+      } catch (InterruptedException e) {
+         futuro.cancel(true);
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+         if (e.getCause() instanceof RuntimeException causa) {
+            throw causa;
+         }
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   @PreDestroy
+   void encerrar() {
+      executor.shutdown();
+   }
+}
@@ -2,26 +2,34 @@ package com.esoares.financas.service.impl;
 
 import com.esoares.financas.exception.ErroAutenticacao;
 import com.esoares.financas.exception.RegraNegocioException;
+import com.esoares.financas.exception.SobrecargaException;
 import com.esoares.financas.model.entity.Usuario;
 import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.EmailCadastradoService;
+import com.esoares.financas.service.SenhaService;
 import com.esoares.financas.service.UsuarioService;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Service
+@Timed(value = "usuario.service", histogram = true)
 public class UsuarioServiceImpl implements UsuarioService {
 
 
    private UsuarioRepository repository;
-   private final PasswordEncoder encoder;
+   private final SenhaService senhaService;
+   private final EmailCadastradoService emailsCadastrados;
 
-   public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder encoder) {
+   public UsuarioServiceImpl(UsuarioRepository repository, SenhaService senhaService,
+                             EmailCadastradoService emailsCadastrados) {
       super();
       this.repository = repository;
-      this.encoder = encoder;
+      this.senhaService = senhaService;
+      this.emailsCadastrados = emailsCadastrados;
    }
 
    @Override
@@ -32,27 +40,54 @@ public class UsuarioServiceImpl implements UsuarioService {
          throw new ErroAutenticacao("Usuário não encontrado.");
       }
 
-      boolean senhasBatem = encoder.matches(senha, usuario.get().getSenha());
+      boolean senhasBatem = senhaService.confere(senha, usuario.get().getSenha());
 
 
       if(!senhasBatem){
          throw new ErroAutenticacao("Senha inválida.");
       }
 
+      if (senhaService.precisaRecriptografar(usuario.get().getSenha())) {
+         recriptografar(usuario.get(), senha);
+      }
       return usuario.get();
    }
 
+   /**
+    * troca o hash salvo por um com o fator de custo atual, aproveitando a senha que acabou de ser conferida.
+    * Sob sobrecarga o login segue normalmente e a troca fica para o próximo. O update em massa invalida a
+    * região do usuário no cache de segundo nível, então a próxima leitura por id já traz o hash novo.
+    */
+   private void recriptografar(Usuario usuario, String senha) {
+      try {
+         String novoHash = senhaService.criptografar(senha);
+         if (repository.atualizarSenha(usuario.getId(), usuario.getSenha(), novoHash) > 0) {
+            usuario.setSenha(novoHash);
+         }
+      } catch (SobrecargaException e) {
+         // o hash antigo continua válido
+      }
+   }
+
    @Override
    @Transactional
    public Usuario salvarUsuario(Usuario usuario) {
       validarEmail(usuario.getEmail());
       criptografarSenha(usuario);
-      return repository.save(usuario);
+      Usuario salvo;
+      try {
+         salvo = repository.save(usuario);
+      } catch (DataIntegrityViolationException e) {
+         // cadastro concorrente com o mesmo e-mail, barrado pelo índice único
+         throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
+      }
+      emailsCadastrados.registrar(usuario.getEmail());
+      return salvo;
    }
 
    private void criptografarSenha(Usuario usuario) {
       String senha = usuario.getSenha();
-      String senhaCriptografada = encoder.encode(senha);
+      String senhaCriptografada = senhaService.criptografar(senha);
       usuario.setSenha(senhaCriptografada);
    }
 
@@ -61,13 +96,22 @@ public class UsuarioServiceImpl implements UsuarioService {
     * lança exceção se o email recebido por parâmetro já existir
     */
    public void validarEmail(String email) {
+      if (!emailsCadastrados.podeExistir(email)) {
+         return;
+      }
       boolean existe = repository.existsByEmail(email);
+      emailsCadastrados.registrarConsulta(existe);
       if(existe){
          throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
       }
    }
 
+   /**
+    * a transação de escrita mantém a carga no primário; o findById sozinho seria readOnly e poderia ler da réplica.
+    * As leituras repetidas saem do cache de segundo nível do Hibernate, sem consulta.
+    */
    @Override
+   @Transactional
    public Optional<Usuario> obterPorId(Long id) {
       return repository.findById(id);
    }
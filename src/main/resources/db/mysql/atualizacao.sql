@@ -0,0 +1,80 @@
+-- Ajustes de esquema do MySQL que o Hibernate não aplica (a aplicação não usa ddl-auto em produção).
+-- Rodar uma vez, na ordem, antes de subir a versão que depende de cada bloco. Os nomes de tabelas, colunas e
+-- índices são os das anotações das entidades; ao mudar uma delas, mudar aqui também.
+
+-- usuario: e-mail único. O índice é o que barra dois cadastros concorrentes com o mesmo e-mail
+-- (UsuarioServiceImpl.salvarUsuario traduz a violação em RegraNegocioException). Antes de criá-lo,
+-- resolver os duplicados que existirem:
+--    select email, count(*) from usuario group by email having count(*) > 1;
+create unique index idx_usuario_email on usuario (email);
+
+-- lancamento: controle de versão (If-Match), hash da importação e índices das consultas por usuário
+alter table lancamento
+   add column versao bigint not null default 0,
+   add column hash_importacao varchar(64);
+
+create index idx_lancamento_usuario_periodo on lancamento (id_usuario, ano, mes, tipo, status);
+create index idx_lancamento_usuario_data_cadastro on lancamento (id_usuario, data_cadastro);
+create index idx_lancamento_usuario_valor on lancamento (id_usuario, valor);
+-- hash nulo (lançamento digitado) não conflita: o MySQL aceita vários nulos num índice único
+create unique index idx_lancamento_usuario_hash_importacao on lancamento (id_usuario, hash_importacao);
+
+-- Lancamento.id passou de identity para a sequência lancamento_seq (blocos de 50, otimizador pooled).
+-- No MySQL a sequência é a tabela abaixo, com uma única linha. O valor inicial fica 50 acima do maior id:
+-- o primeiro bloco que a aplicação reserva vai de max(id) + 1 a max(id) + 50, sem colidir com os existentes.
+-- Sem essa linha a aplicação falha no primeiro insert; com ela atrasada, os inserts colidem na chave primária.
+create table if not exists lancamento_seq (
+   next_val bigint
+) engine = InnoDB;
+
+delete from lancamento_seq;
+insert into lancamento_seq (next_val)
+select coalesce(max(id), 0) + 50 from lancamento;
+
+-- saldo_usuario: uma linha por usuário, criada sob demanda a partir dos lançamentos (não precisa de carga)
+create table saldo_usuario (
+   id_usuario bigint not null,
+   saldo_efetivado decimal(16, 2) not null,
+   saldo_pendente decimal(16, 2) not null,
+   primary key (id_usuario)
+) engine = InnoDB;
+
+-- lancamento_resumo_mensal: totais por usuário, período, tipo e status
+create table lancamento_resumo_mensal (
+   id_usuario bigint not null,
+   ano integer not null,
+   mes integer not null,
+   tipo varchar(255) not null,
+   status varchar(255) not null,
+   total decimal(16, 2) not null,
+   quantidade bigint not null,
+   primary key (id_usuario, ano, mes, tipo, status)
+) engine = InnoDB;
+
+create index idx_resumo_mensal_usuario_ano on lancamento_resumo_mensal (id_usuario, ano);
+
+-- carga do histórico: a aplicação só mantém o resumo a partir das alterações seguintes. Rodar com a aplicação
+-- parada; com ela no ar, usar POST /api/usuarios/{id}/resumo/reconstruir, que bloqueia o usuário.
+-- Mesmos filtros da manutenção incremental (ResumoMensalRepository.incluirPorUsuario).
+insert into lancamento_resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade)
+select l.id_usuario, l.ano, l.mes, l.tipo, l.status, sum(l.valor), count(*)
+from lancamento l
+where l.id_usuario is not null and l.ano is not null and l.mes is not null and l.tipo is not null
+  and l.status is not null and l.valor is not null
+group by l.id_usuario, l.ano, l.mes, l.tipo, l.status;
+
+-- refresh_token: tokens de renovação guardados pelo hash, agrupados por família de rotação
+create table refresh_token (
+   id bigint not null auto_increment,
+   hash varchar(64) not null,
+   familia varchar(36) not null,
+   id_usuario bigint not null,
+   expiracao datetime(6) not null,
+   usado bit not null,
+   primary key (id)
+) engine = InnoDB;
+
+create unique index idx_refresh_token_hash on refresh_token (hash);
+create index idx_refresh_token_familia on refresh_token (familia);
+-- usado pela limpeza agendada (RefreshTokenServiceImpl.removerVencidos)
+create index idx_refresh_token_expiracao on refresh_token (expiracao);
@@ -0,0 +1,25 @@
+package com.esoares.financas.api;
+
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * verificações do número de comandos SQL de uma requisição no MockMvc, lidos da contagem que o
+ * {@link OrcamentoSqlFilter} deixa na requisição. Exige o contexto completo (@SpringBootTest com @AutoConfigureMockMvc).
+ */
+public final class ConsultasSql {
+
+   private ConsultasSql() {
+   }
+
+   public static ResultMatcher executou(int quantidade) {
+      return resultado -> {
+         ConsultasRequisicao consultas = (ConsultasRequisicao) resultado.getRequest().getAttribute(ConsultasRequisicao.ATRIBUTO);
+         assertThat(consultas).as("a requisição não passou pelo filtro de orçamento SQL").isNotNull();
+         assertThat(consultas.getQuantidade())
+                 .as("comandos SQL em %s %s", resultado.getRequest().getMethod(), resultado.getRequest().getRequestURI())
+                 .isEqualTo(quantidade);
+      };
+   }
+}
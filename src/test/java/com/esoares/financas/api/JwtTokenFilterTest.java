@@ -0,0 +1,82 @@
+package com.esoares.financas.api;
+
+import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.UsuarioAutenticado;
+import com.esoares.financas.service.impl.SecurityUserDetailsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtTokenFilterTest {
+
+   JwtService jwtService = Mockito.mock(JwtService.class);
+   SecurityUserDetailsService userDetailsService = Mockito.mock(SecurityUserDetailsService.class);
+
+   @AfterEach
+   public void limparContexto() {
+      SecurityContextHolder.clearContext();
+   }
+
+   @Test
+   public void deveAutenticarPelasClaimsSemConsultarOBanco() throws Exception {
+      // cenário
+      UsuarioAutenticado usuario = new UsuarioAutenticado(7L, "usuario@email.com", "usuario");
+      Mockito.when(jwtService.autenticar("token")).thenReturn(Optional.of(usuario));
+      MockHttpServletRequest request = new MockHttpServletRequest();
+      request.addHeader("Authorization", "Bearer token");
+
+      // execução
+      new JwtTokenFilter(jwtService, userDetailsService, true, Set.of())
+              .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+      // verificação
+      Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+      assertThat(autenticacao.getPrincipal()).isSameAs(usuario);
+      assertThat(autenticacao.getName()).isEqualTo("usuario@email.com");
+      Mockito.verifyNoInteractions(userDetailsService);
+   }
+
+   @Test
+   public void naoDeveAutenticarComTokenInvalidoOuRevogado() throws Exception {
+      // cenário
+      Mockito.when(jwtService.autenticar("token")).thenReturn(Optional.empty());
+      MockHttpServletRequest request = new MockHttpServletRequest();
+      request.addHeader("Authorization", "Bearer token");
+
+      // execução
+      new JwtTokenFilter(jwtService, userDetailsService, true, Set.of())
+              .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+      // verificação
+      assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+   }
+
+   @Test
+   public void deveConcederPapelDeAdministradorAosEmailsConfigurados() throws Exception {
+      // cenário
+      UsuarioAutenticado usuario = new UsuarioAutenticado(7L, "admin@email.com", "admin");
+      Mockito.when(jwtService.autenticar("token")).thenReturn(Optional.of(usuario));
+      MockHttpServletRequest request = new MockHttpServletRequest();
+      request.addHeader("Authorization", "Bearer token");
+
+      // execução
+      new JwtTokenFilter(jwtService, userDetailsService, true, Set.of("admin@email.com"))
+              .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+      // verificação
+      assertThat(SecurityContextHolder.getContext().getAuthentication().getAuthorities())
+              .extracting(GrantedAuthority::getAuthority)
+              .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN");
+   }
+}
@@ -0,0 +1,70 @@
+package com.esoares.financas.api;
+
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class OrcamentoSqlFilterTest {
+
+   @Test
+   public void deveFalharQuandoOEndpointPassarDoProprioOrcamento() {
+      // cenário
+      OrcamentoSqlFilter filtro = new OrcamentoSqlFilter(Map.of("GET /api/lancamentos/{id}", 1), 10,
+              OrcamentoSqlFilter.Acao.FALHAR, true);
+      MockHttpServletRequest request = requisicao("/api/lancamentos/{id}");
+      MockHttpServletResponse response = new MockHttpServletResponse();
+
+      // execução e verificação
+      assertThatThrownBy(() -> filtro.doFilter(request, response, executando(2)))
+              .isInstanceOf(IllegalStateException.class)
+              .hasMessageContaining("GET /api/lancamentos/{id} executou 2 comandos SQL");
+      assertThat(response.getHeader(OrcamentoSqlFilter.CABECALHO_CONSULTAS)).isEqualTo("2");
+   }
+
+   @Test
+   public void deveUsarOOrcamentoPadraoParaEndpointSemLimiteProprio() {
+      // cenário
+      OrcamentoSqlFilter filtro = new OrcamentoSqlFilter(Map.of("GET /api/lancamentos/{id}", 1), 3,
+              OrcamentoSqlFilter.Acao.FALHAR, false);
+      MockHttpServletResponse response = new MockHttpServletResponse();
+
+      // execução e verificação
+      assertThatCode(() -> filtro.doFilter(requisicao("/api/usuarios/{id}/saldo"), response, executando(3)))
+              .doesNotThrowAnyException();
+      assertThatThrownBy(() -> filtro.doFilter(requisicao("/api/usuarios/{id}/saldo"), response, executando(4)))
+              .isInstanceOf(IllegalStateException.class);
+      assertThat(response.getHeader(OrcamentoSqlFilter.CABECALHO_CONSULTAS)).isNull();
+   }
+
+   private static MockHttpServletRequest requisicao(String padrao) {
+      MockHttpServletRequest request = new MockHttpServletRequest("GET", padrao);
+      request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, padrao);
+      return request;
+   }
+
+   /**
+    * cadeia que simula o proxy do datasource registrando as consultas e depois escreve o corpo.
+    */
+   private static MockFilterChain executando(int consultas) {
+      return new MockFilterChain() {
+         @Override
+         public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+            for (int i = 0; i < consultas; i++) {
+               ConsultasRequisicao.registrar(1);
+            }
+            response.getWriter().write("{}");
+         }
+      };
+   }
+}
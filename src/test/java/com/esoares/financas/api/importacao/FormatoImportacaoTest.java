@@ -0,0 +1,71 @@
+package com.esoares.financas.api.importacao;
+
+import com.esoares.financas.service.LinhaExtrato;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FormatoImportacaoTest {
+
+   @Test
+   public void deveLerCsvComCabecalhoAspasEValoresBrasileiros() {
+      String csv = "data;descricao;valor\n" +
+              "05/01/2024;\"Mercado; centro\";-1.234,56\n" +
+              "\n" +
+              "2024-01-06;Salario;3500.00\n" +
+              "xx/01/2024;Invalida;10\n";
+
+      List<LinhaExtrato> linhas = ler(FormatoImportacao.CSV, csv);
+
+      assertThat(linhas).hasSize(3);
+      assertThat(linhas.get(0).getNumero()).isEqualTo(2);
+      assertThat(linhas.get(0).getData()).isEqualTo(LocalDate.of(2024, 1, 5));
+      assertThat(linhas.get(0).getDescricao()).isEqualTo("Mercado; centro");
+      assertThat(linhas.get(0).getValor()).isEqualByComparingTo(new BigDecimal("-1234.56"));
+      assertThat(linhas.get(1).getNumero()).isEqualTo(4);
+      assertThat(linhas.get(1).getValor()).isEqualByComparingTo(new BigDecimal("3500"));
+      assertThat(linhas.get(2).isValida()).isFalse();
+      assertThat(linhas.get(2).getNumero()).isEqualTo(5);
+   }
+
+   @Test
+   public void deveLerMovimentacoesDeOfxSgml() {
+      String ofx = "OFXHEADER:100\nDATA:OFXSGML\n\n<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\n" +
+              "<STMTTRN>\n<TRNTYPE>DEBIT\n<DTPOSTED>20240105120000[-3:BRT]\n<TRNAMT>-45.20\n<FITID>1\n<MEMO>Padaria &amp; Cafe\n</STMTTRN>\n" +
+              "<STMTTRN>\n<TRNTYPE>CREDIT\n<DTPOSTED>20240110\n<TRNAMT>1000,00\n<NAME>Transferencia\n</STMTTRN>\n" +
+              "<STMTTRN>\n<TRNAMT>10\n</STMTTRN>\n" +
+              "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>";
+
+      List<LinhaExtrato> linhas = ler(FormatoImportacao.OFX, ofx);
+
+      assertThat(linhas).hasSize(3);
+      assertThat(linhas.get(0).getData()).isEqualTo(LocalDate.of(2024, 1, 5));
+      assertThat(linhas.get(0).getDescricao()).isEqualTo("Padaria & Cafe");
+      assertThat(linhas.get(0).getValor()).isEqualByComparingTo(new BigDecimal("-45.20"));
+      assertThat(linhas.get(1).getDescricao()).isEqualTo("Transferencia");
+      assertThat(linhas.get(1).getValor()).isEqualByComparingTo(new BigDecimal("1000"));
+      assertThat(linhas.get(2).isValida()).isFalse();
+   }
+
+   @Test
+   public void deveIdentificarOFormatoPelaExtensao() {
+      assertThat(FormatoImportacao.doArquivo("extrato.OFX")).contains(FormatoImportacao.OFX);
+      assertThat(FormatoImportacao.doArquivo("extrato.csv")).contains(FormatoImportacao.CSV);
+      assertThat(FormatoImportacao.doArquivo("extrato.pdf")).isEmpty();
+   }
+
+   private static List<LinhaExtrato> ler(FormatoImportacao formato, String conteudo) {
+      Iterator<LinhaExtrato> leitor = formato.leitor(new BufferedReader(new StringReader(conteudo)));
+      List<LinhaExtrato> linhas = new ArrayList<>();
+      leitor.forEachRemaining(linhas::add);
+      return linhas;
+   }
+}
@@ -0,0 +1,209 @@
+package com.esoares.financas.api.resource;
+
+import com.esoares.financas.api.OrcamentoSqlFilter;
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.repository.LancamentoRepositoryTest;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.SenhaService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hamcrest.Matchers;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.UUID;
+
+import static com.esoares.financas.api.ConsultasSql.executou;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * número exato de comandos SQL de cada endpoint, com caches frios (usuário novo em cada teste).
+ * Um valor maior aqui quase sempre é um N+1 novo; um valor menor é ganho e só precisa atualizar o teste.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class ConsultasPorEndpointTest {
+
+   static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+   @Autowired
+   MockMvc mvc;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Autowired
+   LancamentoService lancamentoService;
+
+   @Autowired
+   SenhaService senhaService;
+
+   @Autowired
+   JwtService jwtService;
+
+   @Autowired
+   EntityManagerFactory entityManagerFactory;
+
+   Usuario usuario;
+   String token;
+
+   @BeforeEach
+   public void criarUsuario() {
+      String email = UUID.randomUUID() + "@email.com";
+      usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email(email)
+              .senha(senhaService.criptografar("senha")).build());
+      token = jwtService.generateToken(usuario);
+   }
+
+   @Test
+   public void deveBuscarLancamentosComConsultasIndependentesDaQuantidade() throws Exception {
+      // cenário
+      for (int i = 0; i < 3; i++) {
+         salvarLancamento();
+      }
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/lancamentos").param("usuario", usuario.getId().toString())))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(1));
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/lancamentos")
+                      .param("usuario", usuario.getId().toString()).param("limit", "2").param("total", "true")))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(2));
+   }
+
+   @Test
+   public void deveObterLancamento() throws Exception {
+      // cenário
+      Lancamento lancamento = salvarLancamento();
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/lancamentos/{id}", lancamento.getId())))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(MockMvcResultMatchers.header().string(OrcamentoSqlFilter.CABECALHO_CONSULTAS, "1"))
+              .andExpect(executou(1));
+   }
+
+   @Test
+   public void deveSalvarLancamento() throws Exception {
+      // cenário
+      String json = "{\"descricao\":\"lancamento\",\"mes\":1,\"ano\":2024,\"valor\":10,\"tipo\":\"RECEITA\","
+              + "\"usuario\":" + usuario.getId() + "}";
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.post("/api/lancamentos").contentType(JSON).content(json)))
+              .andExpect(MockMvcResultMatchers.status().isCreated())
+              .andExpect(executou(9));
+   }
+
+   @Test
+   public void deveIncluirNovoLancamentoMesmoComIdNoCorpo() throws Exception {
+      // cenário
+      Lancamento existente = salvarLancamento();
+      String json = "{\"id\":" + existente.getId() + ",\"descricao\":\"outro\",\"mes\":1,\"ano\":2024,\"valor\":10,"
+              + "\"tipo\":\"RECEITA\",\"usuario\":" + usuario.getId() + "}";
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.post("/api/lancamentos").contentType(JSON).content(json)))
+              .andExpect(MockMvcResultMatchers.status().isCreated())
+              .andExpect(MockMvcResultMatchers.jsonPath("id").value(Matchers.not(existente.getId().intValue())));
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/lancamentos/{id}", existente.getId())))
+              .andExpect(MockMvcResultMatchers.jsonPath("descricao").value(existente.getDescricao()));
+   }
+
+   @Test
+   public void deveObterOUsuarioDoCacheDeSegundoNivelAoSalvarLancamento() throws Exception {
+      // cenário
+      String json = "{\"descricao\":\"lancamento\",\"mes\":1,\"ano\":2024,\"valor\":10,\"tipo\":\"RECEITA\","
+              + "\"usuario\":" + usuario.getId() + "}";
+      mvc.perform(autenticada(MockMvcRequestBuilders.post("/api/lancamentos").contentType(JSON).content(json)))
+              .andExpect(MockMvcResultMatchers.status().isCreated());
+      Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      estatisticas.clear();
+
+      // execução
+      mvc.perform(autenticada(MockMvcRequestBuilders.post("/api/lancamentos").contentType(JSON).content(json)))
+              .andExpect(MockMvcResultMatchers.status().isCreated());
+
+      // verificação: na segunda requisição o usuário vem do cache, não de um select por id
+      CacheRegionStatistics regiao = estatisticas.getDomainDataRegionStatistics("usuario");
+      assertThat(regiao.getHitCount()).isPositive();
+      assertThat(regiao.getMissCount()).isZero();
+   }
+
+   @Test
+   public void deveAtualizarStatusDoLancamento() throws Exception {
+      // cenário
+      Lancamento lancamento = salvarLancamento();
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.put("/api/lancamentos/{id}/atualiza-status", lancamento.getId())
+                      .contentType(JSON).content("{\"status\":\"EFETIVADO\"}")))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(9));
+   }
+
+   @Test
+   public void deveDeletarLancamento() throws Exception {
+      // cenário
+      Lancamento lancamento = salvarLancamento();
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.delete("/api/lancamentos/{id}", lancamento.getId())))
+              .andExpect(MockMvcResultMatchers.status().isNoContent())
+              .andExpect(executou(6));
+   }
+
+   @Test
+   public void deveObterSaldoDoUsuario() throws Exception {
+      // cenário
+      salvarLancamento();
+
+      // execução e verificação
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/usuarios/{id}/saldo", usuario.getId())))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(1));
+      mvc.perform(autenticada(MockMvcRequestBuilders.get("/api/usuarios/{id}/saldo", usuario.getId())))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(0));
+   }
+
+   @Test
+   public void deveAutenticarUsuario() throws Exception {
+      // cenário
+      String json = "{\"email\":\"" + usuario.getEmail() + "\",\"senha\":\"senha\"}";
+
+      // execução e verificação
+      mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/autenticar").contentType(JSON).content(json))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(executou(2));
+   }
+
+   private Lancamento salvarLancamento() {
+      Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      lancamento.setStatus(StatusLancamento.PENDENTE);
+      return lancamentoService.salvar(lancamento);
+   }
+
+   private MockHttpServletRequestBuilder autenticada(MockHttpServletRequestBuilder request) {
+      return request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+   }
+}
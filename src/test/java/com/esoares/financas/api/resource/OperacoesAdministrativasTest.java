@@ -0,0 +1,83 @@
+package com.esoares.financas.api.resource;
+
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.SenhaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.util.UUID;
+
+/**
+ * rotas de manutenção só respondem a quem está em seguranca.administradores.
+ */
+@SpringBootTest(properties = "seguranca.administradores=" + OperacoesAdministrativasTest.ADMINISTRADOR)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+public class OperacoesAdministrativasTest {
+
+   static final String ADMINISTRADOR = "administrador@email.com";
+
+   @Autowired
+   MockMvc mvc;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Autowired
+   SenhaService senhaService;
+
+   @Autowired
+   JwtService jwtService;
+
+   Usuario usuario;
+
+   @BeforeEach
+   public void criarUsuario() {
+      usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com")
+              .senha(senhaService.criptografar("senha")).build());
+   }
+
+   @Test
+   public void naoDeveReconciliarSaldoSemSerAdministrador() throws Exception {
+      // execução e verificação
+      mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/{id}/saldo/reconciliar", usuario.getId())
+                      .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(usuario)))
+              .andExpect(MockMvcResultMatchers.status().isForbidden());
+   }
+
+   @Test
+   public void deveReconciliarSaldoComoAdministrador() throws Exception {
+      // cenário
+      Usuario administrador = Usuario.builder().id(0L).nome("administrador").email(ADMINISTRADOR).build();
+
+      // execução e verificação
+      mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/{id}/saldo/reconciliar", usuario.getId())
+                      .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(administrador)))
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(MockMvcResultMatchers.jsonPath("saldo").value(0));
+   }
+
+   @Test
+   public void deveReconstruirResumoSoComoAdministrador() throws Exception {
+      // cenário
+      Usuario administrador = Usuario.builder().id(0L).nome("administrador").email(ADMINISTRADOR).build();
+
+      // execução e verificação
+      mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/{id}/resumo/reconstruir", usuario.getId())
+                      .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(usuario)))
+              .andExpect(MockMvcResultMatchers.status().isForbidden());
+      mvc.perform(MockMvcRequestBuilders.post("/api/usuarios/{id}/resumo/reconstruir", usuario.getId())
+                      .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(administrador)))
+              .andExpect(MockMvcResultMatchers.status().isNoContent());
+   }
+}
@@ -3,8 +3,16 @@ package com.esoares.financas.api.resource;
 import com.esoares.financas.api.dto.UsuarioDTO;
 import com.esoares.financas.exception.ErroAutenticacao;
 import com.esoares.financas.exception.RegraNegocioException;
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.entity.ResumoMensalId;
 import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.service.JwtService;
 import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.RefreshTokenService;
+import com.esoares.financas.service.ResumoMensalService;
+import com.esoares.financas.service.SaldoUsuarioService;
 import com.esoares.financas.service.UsuarioService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -20,9 +28,15 @@ import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilde
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
 @ActiveProfiles("test")
 @WebMvcTest(controllers = UsuarioResource.class)
-@AutoConfigureMockMvc
+@AutoConfigureMockMvc(addFilters = false)
 public class UsuarioResourceTest {
 
    static final String API = "/api/usuarios";
@@ -37,6 +51,18 @@ public class UsuarioResourceTest {
    @MockBean
    LancamentoService lancamentoService;
 
+   @MockBean
+   JwtService jwtService;
+
+   @MockBean
+   SaldoUsuarioService saldoUsuarioService;
+
+   @MockBean
+   ResumoMensalService resumoMensalService;
+
+   @MockBean
+   RefreshTokenService refreshTokenService;
+
 
    @Test
    public void deveAutenticarUmUsuario() throws Exception {
@@ -44,8 +70,10 @@ public class UsuarioResourceTest {
       String email = "usuario@email.com";
       String senha = "123";
       UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
-      Usuario usuario = Usuario.builder().id(1L).email(email).senha(senha).build();
+      Usuario usuario = Usuario.builder().id(1L).nome("usuario").email(email).senha(senha).build();
       Mockito.when(service.autenticar(email, senha)).thenReturn(usuario);
+      Mockito.when(jwtService.generateToken(usuario)).thenReturn("token");
+      Mockito.when(refreshTokenService.emitir(usuario)).thenReturn("refresh");
       String json = new ObjectMapper().writeValueAsString(dto);
 
       // acao
@@ -58,9 +86,9 @@ public class UsuarioResourceTest {
 
       mvc.perform(request)
               .andExpect(MockMvcResultMatchers.status().isOk())
-              .andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
               .andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-              .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+              .andExpect(MockMvcResultMatchers.jsonPath("token").value("token"))
+              .andExpect(MockMvcResultMatchers.jsonPath("refreshToken").value("refresh"));
    }
 
    @Test
@@ -133,4 +161,50 @@ public class UsuarioResourceTest {
               .andExpect(MockMvcResultMatchers.status().isBadRequest());
    }
 
+   @Test
+   public void deveRetornarOSaldoDetalhadoDoUsuario() throws Exception {
+      Usuario usuario = Usuario.builder().id(1L).build();
+      Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(usuario));
+      Map<StatusLancamento, BigDecimal> saldos = new EnumMap<>(StatusLancamento.class);
+      saldos.put(StatusLancamento.EFETIVADO, BigDecimal.valueOf(100));
+      saldos.put(StatusLancamento.PENDENTE, BigDecimal.valueOf(-30));
+      Mockito.when(lancamentoService.obterSaldoPorStatus(1L)).thenReturn(saldos);
+
+      MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+              .get(API.concat("/1/saldo"))
+              .param("detalhado", "true")
+              .accept(JSON);
+
+      mvc.perform(request)
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(MockMvcResultMatchers.jsonPath("saldo").value(100))
+              .andExpect(MockMvcResultMatchers.jsonPath("pendente").value(-30))
+              .andExpect(MockMvcResultMatchers.jsonPath("projetado").value(70));
+   }
+
+   @Test
+   public void deveRetornarOResumoMensalDoAno() throws Exception {
+      Usuario usuario = Usuario.builder().id(1L).build();
+      Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(usuario));
+      ResumoMensal resumo = ResumoMensal.builder()
+              .id(new ResumoMensalId(1L, 2024, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO))
+              .total(BigDecimal.valueOf(250))
+              .quantidade(4L)
+              .build();
+      Mockito.when(resumoMensalService.obterResumo(1L, 2024)).thenReturn(List.of(resumo));
+
+      MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+              .get(API.concat("/1/resumo"))
+              .param("ano", "2024")
+              .accept(JSON);
+
+      mvc.perform(request)
+              .andExpect(MockMvcResultMatchers.status().isOk())
+              .andExpect(MockMvcResultMatchers.jsonPath("[0].mes").value(3))
+              .andExpect(MockMvcResultMatchers.jsonPath("[0].tipo").value("DESPESA"))
+              .andExpect(MockMvcResultMatchers.jsonPath("[0].status").value("EFETIVADO"))
+              .andExpect(MockMvcResultMatchers.jsonPath("[0].total").value(250))
+              .andExpect(MockMvcResultMatchers.jsonPath("[0].quantidade").value(4));
+   }
+
 }
@@ -0,0 +1,75 @@
+package com.esoares.financas.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CacheConfigurationTest {
+
+   private final CacheConfiguration.CacheCarregadoNaChamada cache =
+           new CacheConfiguration.CacheCarregadoNaChamada("teste", Caffeine.newBuilder().buildAsync());
+
+   @Test
+   public void deveCarregarNaThreadQueChamou() {
+      // cenário
+      Thread chamadora = Thread.currentThread();
+
+      // execução
+      Thread carregadora = cache.get(1L, Thread::currentThread);
+
+      // verificação
+      assertThat(carregadora).isSameAs(chamadora);
+      assertThat(cache.<Thread>get(1L, () -> null)).isSameAs(chamadora);
+   }
+
+   @Test
+   public void deveCarregarUmaVezQuandoHouverChamadasConcorrentes() throws Exception {
+      // cenário: o primeiro carregamento fica parado até o segundo chamador chegar
+      CountDownLatch carregando = new CountDownLatch(1);
+      CountDownLatch liberar = new CountDownLatch(1);
+      AtomicInteger carregamentos = new AtomicInteger();
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+
+      // execução
+      Future<String> primeiro = executor.submit(() -> cache.get(1L, () -> {
+         carregamentos.incrementAndGet();
+         carregando.countDown();
+         liberar.await();
+         return "valor";
+      }));
+      carregando.await();
+      Future<String> segundo = executor.submit(() -> cache.get(1L, () -> {
+         carregamentos.incrementAndGet();
+         return "outro";
+      }));
+      liberar.countDown();
+
+      // verificação
+      assertThat(primeiro.get(5, TimeUnit.SECONDS)).isEqualTo("valor");
+      assertThat(segundo.get(5, TimeUnit.SECONDS)).isEqualTo("valor");
+      assertThat(carregamentos).hasValue(1);
+      executor.shutdown();
+   }
+
+   @Test
+   public void naoDeveGuardarCarregamentoComErro() {
+      // execução
+      assertThatThrownBy(() -> cache.get(1L, () -> {
+         throw new IllegalStateException("falha");
+      })).isInstanceOf(Cache.ValueRetrievalException.class).hasRootCauseMessage("falha");
+
+      // verificação
+      assertThat(cache.get(1L, () -> "valor")).isEqualTo("valor");
+   }
+
+}
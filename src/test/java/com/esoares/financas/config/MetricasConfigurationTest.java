@@ -0,0 +1,87 @@
+package com.esoares.financas.config;
+
+import com.esoares.financas.service.JwtService;
+import com.esoares.financas.service.UsuarioService;
+import org.hamcrest.Matcher;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.matchesPattern;
+
+/**
+ * o actuator sobe na porta de gerenciamento (aqui aleatória), separada da porta da API.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "management.server.port=0")
+@AutoConfigureObservability
+@ActiveProfiles("test")
+public class MetricasConfigurationTest {
+
+   @Autowired
+   TestRestTemplate restTemplate;
+
+   @Autowired
+   UsuarioService usuarioService;
+
+   @Autowired
+   JwtService jwtService;
+
+   @LocalServerPort
+   int portaApi;
+
+   @LocalManagementPort
+   int portaGerenciamento;
+
+   @Test
+   public void deveExporAsMetricasNoFormatoDoPrometheusSemTokenNaPortaDeGerenciamento() {
+      // cenário
+      usuarioService.obterPorId(-1L);
+      jwtService.autenticar("token-invalido");
+
+      // execução
+      ResponseEntity<String> resposta = restTemplate.getForEntity(
+              "http://localhost:" + portaGerenciamento + "/actuator/prometheus", String.class);
+
+      // verificação
+      assertThat(resposta.getStatusCode()).isEqualTo(HttpStatus.OK);
+      assertThat(resposta.getBody(), allOf(
+              serie("usuario_service_seconds_count", "method=\"obterPorId\""),
+              serie("jwt_verificacao_seconds_count", "resultado=\"recusado\""),
+              containsString("jwt_emissao_seconds_count"),
+              containsString("hikaricp_connections_active"),
+              containsString("hibernate_entities_loads_total"),
+              containsString("hibernate_second_level_cache_requests_total")));
+   }
+
+   @Test
+   public void naoDeveExporAsMetricasNaPortaDaApi() {
+      // execução
+      ResponseEntity<String> resposta = restTemplate.getForEntity(
+              "http://localhost:" + portaApi + "/actuator/prometheus", String.class);
+
+      // verificação: o caminho não existe nesta porta
+      assertThat(resposta.getStatusCode().is4xxClientError()).isTrue();
+   }
+
+   /**
+    * série com a tag informada, em qualquer posição entre as demais.
+    */
+   private static Matcher<String> serie(String nome, String tag) {
+      return matchesPattern(Pattern.compile(".*^" + Pattern.quote(nome) + "\\{[^}]*" + Pattern.quote(tag) + ".*",
+              Pattern.DOTALL | Pattern.MULTILINE));
+   }
+
+}
@@ -0,0 +1,206 @@
+package com.esoares.financas.config;
+
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import com.esoares.financas.service.LancamentoService;
+import com.esoares.financas.service.UsuarioAutenticado;
+import com.esoares.financas.service.UsuarioService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * dois bancos H2 em memória fazem o papel de primário e réplica; a "replicação" é feita à mão pelo teste,
+ * então um registro que só existe em um deles mostra para onde a leitura ou a escrita foi.
+ * A réplica nasce com a tabela de atraso vazia de valor (replicação parada), então as leituras da subida do
+ * contexto, antes de o esquema existir nela, ficam no primário; cada teste copia o esquema e zera o atraso.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1",
+        "replica.datasource.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1;"
+                + "INIT=CREATE TABLE IF NOT EXISTS atraso_replica (segundos) AS SELECT CAST(NULL AS INT)",
+        "replica.datasource.username=sa",
+        "replica.datasource.password=sa",
+        "replica.atraso-maximo=1s",
+        "replica.atraso.consulta=SELECT segundos FROM atraso_replica",
+        "replica.atraso.intervalo=0s"
+})
+@ActiveProfiles("test")
+public class RoteamentoDataSourceTest {
+
+   @Autowired
+   EntityManager entityManager;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Autowired
+   PlatformTransactionManager transactionManager;
+
+   @Autowired
+   EntityManagerFactory entityManagerFactory;
+
+   @Autowired
+   UsuarioService usuarioService;
+
+   @Autowired
+   LancamentoService lancamentoService;
+
+   JdbcTemplate primario = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:primario", "sa", "sa"));
+   JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica", "sa", "sa"));
+
+   @BeforeEach
+   public void replicarEsquema() {
+      if (replica.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'USUARIO'", Integer.class) == 0) {
+         List<String> esquema = primario.queryForList("SCRIPT NODATA", String.class);
+         esquema.forEach(replica::execute);
+      }
+      replica.update("UPDATE atraso_replica SET segundos = 0");
+   }
+
+   @AfterEach
+   public void limparAutenticacao() {
+      SecurityContextHolder.clearContext();
+   }
+
+   @Test
+   public void deveLerDaReplicaSomenteEmTransacaoSomenteLeitura() {
+      // cenário
+      String email = inserirSoNaReplica();
+
+      // execução e verificação
+      assertThat(contar(email, true)).isEqualTo(1);
+      assertThat(contar(email, false)).isZero();
+   }
+
+   @Test
+   public void deveLerDoPrimarioLogoAposAEscritaDoProprioUsuario() throws InterruptedException {
+      // cenário
+      autenticar(1L, "escritor@email.com");
+      String email = UUID.randomUUID() + "@email.com";
+      usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+
+      // execução e verificação: quem escreveu lê do primário, mesmo depois de trocar de e-mail; os demais
+      // ainda da réplica
+      assertThat(contar(email, true)).isEqualTo(1);
+      autenticar(1L, "novo-email@email.com");
+      assertThat(contar(email, true)).isEqualTo(1);
+      autenticar(2L, "outro@email.com");
+      assertThat(contar(email, true)).isZero();
+
+      // passado o atraso máximo, quem escreveu volta a ler da réplica
+      Thread.sleep(1100);
+      autenticar(1L, "escritor@email.com");
+      assertThat(contar(email, true)).isZero();
+   }
+
+   @Test
+   public void deveEscreverNoPrimarioComOEntityManagerAbertoDesdeUmaLeituraNaReplica() {
+      // cenário: o EntityManager fica aberto entre as transações, como no open-in-view
+      String lidoDaReplica = inserirSoNaReplica();
+      String novo = UUID.randomUUID() + "@email.com";
+      EntityManager aberto = entityManagerFactory.createEntityManager();
+      TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(aberto));
+      try {
+         // execução
+         assertThat(contar(lidoDaReplica, true)).isEqualTo(1);
+         new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                 usuarioRepository.save(Usuario.builder().nome("usuario").email(novo).senha("senha").build()));
+         long lidoDepois = contar(lidoDaReplica, true);
+
+         // verificação
+         assertThat(contarDireto(primario, novo)).isEqualTo(1);
+         assertThat(contarDireto(replica, novo)).isZero();
+         assertThat(lidoDepois).isEqualTo(1);
+      } finally {
+         TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+         aberto.close();
+      }
+   }
+
+   @Test
+   public void deveCarregarOCacheDeUsuariosDoPrimario() {
+      // cenário: gravado direto no primário, fora do cache de segundo nível, e ainda não replicado
+      String email = UUID.randomUUID() + "@email.com";
+      primario.update("INSERT INTO usuario (email, nome, senha) VALUES (?, 'primario', 'senha')", email);
+      Long id = primario.queryForObject("SELECT id FROM usuario WHERE email = ?", Long.class, email);
+
+      // execução e verificação
+      assertThat(usuarioService.obterPorId(id)).isPresent();
+   }
+
+   @Test
+   public void deveLerAVersaoDoLancamentoDoPrimario() {
+      // cenário: lançamento gravado direto no primário e ainda não replicado
+      Long id = primario.queryForObject("SELECT COALESCE(MAX(id), 0) + 1000000 FROM lancamento", Long.class);
+      primario.update("INSERT INTO lancamento (id, descricao, versao) VALUES (?, 'primario', 3)", id);
+
+      // execução e verificação: a versão lida é a condição do update sem If-Match
+      assertThat(lancamentoService.obterProjecaoPorId(id)).hasValueSatisfying(
+              projecao -> assertThat(projecao.getVersao()).isEqualTo(3L));
+   }
+
+   @Test
+   public void deveLerDoPrimarioComAReplicacaoParada() {
+      // cenário
+      String email = inserirSoNaReplica();
+      replica.update("UPDATE atraso_replica SET segundos = NULL");
+
+      // execução e verificação
+      assertThat(contar(email, true)).isZero();
+   }
+
+   @Test
+   public void deveLerDoPrimarioQuandoAReplicaPassarDoAtrasoMaximo() {
+      // cenário
+      String email = inserirSoNaReplica();
+      replica.update("UPDATE atraso_replica SET segundos = 10");
+
+      // execução e verificação
+      assertThat(contar(email, true)).isZero();
+      replica.update("UPDATE atraso_replica SET segundos = 1");
+      assertThat(contar(email, true)).isEqualTo(1);
+   }
+
+   private String inserirSoNaReplica() {
+      String email = UUID.randomUUID() + "@email.com";
+      replica.update("INSERT INTO usuario (email, nome, senha) VALUES (?, 'replica', 'senha')", email);
+      return email;
+   }
+
+   private long contar(String email, boolean somenteLeitura) {
+      TransactionTemplate transacao = new TransactionTemplate(transactionManager);
+      transacao.setReadOnly(somenteLeitura);
+      return transacao.execute(status -> entityManager
+              .createQuery("select count(u) from Usuario u where u.email = :email", Long.class)
+              .setParameter("email", email)
+              .getSingleResult());
+   }
+
+   private static int contarDireto(JdbcTemplate banco, String email) {
+      return banco.queryForObject("SELECT COUNT(*) FROM usuario WHERE email = ?", Integer.class, email);
+   }
+
+   private static void autenticar(Long id, String email) {
+      SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+              new UsuarioAutenticado(id, email, "usuario"), null, List.of()));
+   }
+}
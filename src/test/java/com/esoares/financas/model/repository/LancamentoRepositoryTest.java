@@ -1,18 +1,24 @@
 package com.esoares.financas.model.repository;
 
 import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
 import com.esoares.financas.model.enums.StatusLancamento;
 import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -92,5 +98,139 @@ public class LancamentoRepositoryTest {
 
    }
 
+   @Test
+   public void deveBuscarLancamentosPaginadosPorCursor() {
+      Lancamento primeiro = gerarLancamentoEPersistirLancamento();
+      Lancamento segundo = gerarLancamentoEPersistirLancamento();
+      Lancamento terceiro = gerarLancamentoEPersistirLancamento();
+      Specification<Lancamento> filtro = LancamentoSpecifications.porFiltro(LancamentoFiltro.builder().ano(2019).build());
+
+      List<LancamentoProjecao> primeiraPagina = repository.buscarProjecoes(filtro, null, 2);
+      List<LancamentoProjecao> segundaPagina = repository.buscarProjecoes(filtro, segundo.getId(), 2);
+
+      assertThat(primeiraPagina).extracting(LancamentoProjecao::getId).containsExactly(primeiro.getId(), segundo.getId());
+      assertThat(segundaPagina).extracting(LancamentoProjecao::getId).containsExactly(terceiro.getId());
+   }
+
+   @Test
+   public void deveAtualizarSomenteNaVersaoEsperada() {
+      Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").build());
+      Lancamento lancamento = gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      entityManager.persist(lancamento);
+      entityManager.flush();
+      entityManager.detach(lancamento);
+
+      lancamento.setDescricao("alterada");
+      int atualizados = repository.atualizarNaVersao(lancamento);
+      int desatualizados = repository.atualizarNaVersao(lancamento);
+
+      assertThat(atualizados).isEqualTo(1);
+      assertThat(desatualizados).isZero();
+      Lancamento gravado = entityManager.find(Lancamento.class, lancamento.getId());
+      assertThat(gravado.getDescricao()).isEqualTo("alterada");
+      assertThat(gravado.getVersao()).isEqualTo(lancamento.getVersao() + 1);
+      assertThat(gravado.getDataCadastro()).isEqualTo(lancamento.getDataCadastro());
+   }
+
+   @Test
+   public void deveBuscarAProjecaoDeUmLancamentoPorId() {
+      Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").build());
+      Lancamento lancamento = gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      entityManager.persist(lancamento);
+
+      Optional<LancamentoProjecao> projecao = repository.findProjecaoById(lancamento.getId());
+
+      assertThat(projecao).isPresent();
+      assertThat(projecao.get().getIdUsuario()).isEqualTo(usuario.getId());
+      assertThat(projecao.get().getDescricao()).isEqualTo(lancamento.getDescricao());
+      assertThat(projecao.get().getTipo()).isEqualTo(lancamento.getTipo());
+   }
+
+   @Test
+   public void deveLerEmStreamOsLancamentosDoUsuario() {
+      Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").build());
+      Lancamento primeiro = gerarLancamentoExemplo();
+      primeiro.setUsuario(usuario);
+      Lancamento segundo = gerarLancamentoExemplo();
+      segundo.setUsuario(usuario);
+      entityManager.persist(primeiro);
+      entityManager.persist(segundo);
+      entityManager.persist(gerarLancamentoExemplo());
+
+      List<Long> ids;
+      try (Stream<Lancamento> stream = repository.streamPorUsuario(usuario.getId())) {
+         ids = stream.map(Lancamento::getId).collect(Collectors.toList());
+      }
+
+      assertThat(ids).containsExactly(primeiro.getId(), segundo.getId());
+   }
+
+   @Test
+   public void deveFiltrarPorIntervaloDeValorEDataDeCadastro() {
+      Lancamento barato = gerarLancamentoEPersistirLancamento();
+      Lancamento caro = gerarLancamentoExemplo();
+      caro.setValor(BigDecimal.valueOf(500));
+      caro.setDataCadastro(LocalDate.now().minusDays(10));
+      entityManager.persist(caro);
+
+      LancamentoFiltro porValor = LancamentoFiltro.builder().valorMinimo(BigDecimal.valueOf(100)).build();
+      LancamentoFiltro porData = LancamentoFiltro.builder().dataCadastroInicial(LocalDate.now().minusDays(1)).build();
+      LancamentoFiltro porDescricao = LancamentoFiltro.builder().ano(2019).build();
+
+      assertThat(repository.findAll(LancamentoSpecifications.porFiltro(porValor))).containsExactly(caro);
+      assertThat(repository.findAll(LancamentoSpecifications.porFiltro(porData))).containsExactly(barato);
+      assertThat(repository.findAll(LancamentoSpecifications.porFiltro(porDescricao)
+              .and(LancamentoSpecifications.descricaoContem("LANCAMENTO")))).hasSize(2);
+   }
+
+   @Test
+   public void deveTratarCuringasDaDescricaoComoTexto() {
+      Lancamento desconto = gerarLancamentoExemplo();
+      desconto.setDescricao("desconto 50%");
+      entityManager.persist(desconto);
+      Lancamento outro = gerarLancamentoExemplo();
+      outro.setDescricao("desconto 500 reais");
+      entityManager.persist(outro);
+
+      assertThat(repository.findAll(LancamentoSpecifications.descricaoContem("50%"))).containsExactly(desconto);
+      assertThat(repository.findAll(LancamentoSpecifications.descricaoContem("desconto_5"))).isEmpty();
+   }
+
+   @Test
+   public void deveCalcularOSaldoPorStatusEmUmaUnicaConsulta() {
+      Usuario usuario = entityManager.persist(Usuario.builder().nome("usuario").email("usuario@email.com").build());
+      persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 100);
+      persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, 30);
+      persistirLancamento(usuario, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 20);
+      persistirLancamento(usuario, TipoLancamento.RECEITA, StatusLancamento.CANCELADO, 1000);
+
+      BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(usuario.getId(), StatusLancamento.EFETIVADO);
+      List<LancamentoRepository.SaldoPorStatus> saldos = repository.obterSaldoPorStatus(usuario.getId());
+
+      assertThat(saldo).isEqualByComparingTo("70");
+      assertThat(saldos).hasSize(2);
+      assertThat(saldos).anySatisfy(s -> {
+         assertThat(s.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+         assertThat(s.getSaldo()).isEqualByComparingTo("-20");
+      });
+   }
+
+   @Test
+   public void deveRetornarSaldoZeroQuandoNaoHouverLancamentos() {
+      BigDecimal saldo = repository.obterSaldoPorUsuarioEStatus(-1L, StatusLancamento.EFETIVADO);
+
+      assertThat(saldo).isEqualByComparingTo("0");
+   }
+
+   private void persistirLancamento(Usuario usuario, TipoLancamento tipo, StatusLancamento status, int valor) {
+      Lancamento lancamento = gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      lancamento.setTipo(tipo);
+      lancamento.setStatus(status);
+      lancamento.setValor(BigDecimal.valueOf(valor));
+      entityManager.persist(lancamento);
+   }
 
 }
@@ -0,0 +1,67 @@
+package com.esoares.financas.model.repository;
+
+import com.esoares.financas.model.entity.Usuario;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UsuarioCacheSegundoNivelTest {
+
+   @Autowired
+   UsuarioRepository repository;
+
+   @Autowired
+   EntityManagerFactory entityManagerFactory;
+
+   @Autowired
+   TransactionTemplate transactionTemplate;
+
+   @Test
+   public void deveBuscarUsuarioPorIdEPorEmailSemConsultarOBanco() {
+      // cenário
+      String email = UUID.randomUUID() + "@email.com";
+      Usuario usuario = repository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+      transactionTemplate.executeWithoutResult(status -> repository.findByEmail(email).orElseThrow());
+
+      Statistics estatisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      estatisticas.clear();
+
+      // execução: cada busca em uma transação nova, sem o contexto de persistência anterior
+      Usuario porId = transactionTemplate.execute(status -> repository.findById(usuario.getId()).orElseThrow());
+      Usuario porEmail = transactionTemplate.execute(status -> repository.findByEmail(email).orElseThrow());
+
+      // verificação
+      assertThat(porId.getEmail()).isEqualTo(email);
+      assertThat(porEmail.getId()).isEqualTo(usuario.getId());
+      assertThat(estatisticas.getPrepareStatementCount()).isZero();
+      assertThat(estatisticas.getSecondLevelCacheHitCount()).isEqualTo(2);
+      assertThat(estatisticas.getNaturalIdCacheHitCount()).isEqualTo(1);
+   }
+
+   @Test
+   public void naoDeveDevolverSenhaAntigaDoCacheDepoisDeAtualizada() {
+      // cenário
+      Usuario usuario = repository.save(Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com")
+              .senha("antiga").build());
+      transactionTemplate.executeWithoutResult(status -> repository.findById(usuario.getId()).orElseThrow());
+
+      // execução
+      transactionTemplate.executeWithoutResult(status -> repository.atualizarSenha(usuario.getId(), "antiga", "nova"));
+      Usuario lido = transactionTemplate.execute(status -> repository.findById(usuario.getId()).orElseThrow());
+
+      // verificação
+      assertThat(lido.getSenha()).isEqualTo("nova");
+   }
+
+}
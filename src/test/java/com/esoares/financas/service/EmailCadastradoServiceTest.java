@@ -0,0 +1,72 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.exception.RegraNegocioException;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "usuario.filtro-email.habilitado=true")
+@ActiveProfiles("test")
+public class EmailCadastradoServiceTest {
+
+   @Autowired
+   UsuarioService usuarioService;
+
+   @Autowired
+   EmailCadastradoService service;
+
+   @Autowired
+   MeterRegistry registry;
+
+   @SpyBean
+   UsuarioRepository repository;
+
+   @Test
+   public void deveDispensarAConsultaParaEmailNovoERecusarEmailJaCadastrado() {
+      // cenário
+      String email = UUID.randomUUID() + "@email.com";
+      double ausentesAntes = contador("ausente");
+
+      // execução
+      usuarioService.salvarUsuario(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+
+      // verificação: o e-mail novo não passou pela consulta de existência
+      Mockito.verify(repository, Mockito.never()).existsByEmail(email);
+      assertThat(contador("ausente")).isEqualTo(ausentesAntes + 1);
+      assertThat(service.podeExistir(email.toUpperCase())).isTrue();
+      assertThatThrownBy(() -> usuarioService.salvarUsuario(
+              Usuario.builder().nome("outro").email(email).senha("senha").build()))
+              .isInstanceOf(RegraNegocioException.class)
+              .hasMessage("Já existe um usuário cadastrado com este email.");
+   }
+
+   @Test
+   public void deveBarrarEmailDuplicadoPeloIndiceUnicoQuandoAValidacaoNaoVe() {
+      // cenário: simula dois cadastros simultâneos, em que a validação do segundo roda antes do insert do primeiro
+      String email = UUID.randomUUID() + "@email.com";
+      usuarioService.salvarUsuario(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+      Mockito.doReturn(false).when(repository).existsByEmail(email);
+
+      // execução e verificação
+      assertThatThrownBy(() -> usuarioService.salvarUsuario(
+              Usuario.builder().nome("outro").email(email).senha("senha").build()))
+              .isInstanceOf(RegraNegocioException.class)
+              .hasMessage("Já existe um usuário cadastrado com este email.");
+      assertThat(contador("falso-positivo")).isPositive();
+   }
+
+   private double contador(String resultado) {
+      return registry.get("usuario.filtro-email.consultas").tag("resultado", resultado).counter().count();
+   }
+}
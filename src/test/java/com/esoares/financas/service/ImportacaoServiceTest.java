@@ -0,0 +1,86 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "importacao.tamanho-lote=2")
+@ActiveProfiles("test")
+public class ImportacaoServiceTest {
+
+   @Autowired
+   ImportacaoService service;
+
+   @Autowired
+   LancamentoService lancamentoService;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Test
+   public void deveImportarEmLotesIgnorandoMovimentacoesJaImportadas() {
+      // cenário: duas compras iguais no mesmo dia são movimentações distintas
+      Usuario usuario = usuarioRepository.save(
+              Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com").senha("senha").build());
+      LocalDate dia = LocalDate.of(2024, 1, 5);
+      List<LinhaExtrato> extrato = List.of(
+              LinhaExtrato.valida(1, dia, "Cafe", new BigDecimal("-5.00")),
+              LinhaExtrato.valida(2, dia, "Cafe", new BigDecimal("-5.00")),
+              LinhaExtrato.invalida(3, "Data inválida: x"),
+              LinhaExtrato.valida(4, dia.plusDays(1), "Salario", new BigDecimal("1000")),
+              LinhaExtrato.valida(5, dia.plusDays(1), "Sem valor", BigDecimal.ZERO));
+
+      // execução
+      List<Long> importadasPorLote = new ArrayList<>();
+      ProgressoImportacao primeira = service.importar(usuario, extrato.iterator(),
+              progresso -> importadasPorLote.add(progresso.getImportadas()));
+      ProgressoImportacao segunda = service.importar(usuario, extrato.iterator(), progresso -> {
+      });
+
+      // verificação
+      assertThat(importadasPorLote).containsExactly(2L, 3L, 3L);
+      assertThat(primeira.getLidas()).isEqualTo(5);
+      assertThat(primeira.getImportadas()).isEqualTo(3);
+      assertThat(primeira.getRejeitadas()).isEqualTo(2);
+      assertThat(primeira.getErros()).containsKeys(3L, 5L);
+      assertThat(primeira.isConcluida()).isTrue();
+
+      assertThat(segunda.getImportadas()).isZero();
+      assertThat(segunda.getDuplicadas()).isEqualTo(3);
+      assertThat(lancamentoService.obterSaldoPorStatus(usuario.getId()).values().stream()
+              .reduce(BigDecimal.ZERO, BigDecimal::add)).isEqualByComparingTo(new BigDecimal("990"));
+   }
+
+   @Test
+   public void deveReconhecerDuplicatasEmExtratoForaDeOrdem() {
+      // cenário: a mesma compra repetida no dia, intercalada com outro dia e depois reordenada
+      Usuario usuario = usuarioRepository.save(
+              Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com").senha("senha").build());
+      LocalDate dia = LocalDate.of(2024, 2, 5);
+      LinhaExtrato primeiroCafe = LinhaExtrato.valida(1, dia, "Cafe", new BigDecimal("-5.00"));
+      LinhaExtrato almoco = LinhaExtrato.valida(2, dia.plusDays(1), "Almoco", new BigDecimal("-30.00"));
+      LinhaExtrato segundoCafe = LinhaExtrato.valida(3, dia, "Cafe", new BigDecimal("-5.00"));
+
+      // execução
+      ProgressoImportacao primeira = service.importar(usuario, List.of(primeiroCafe, almoco, segundoCafe).iterator(), progresso -> {
+      });
+      ProgressoImportacao segunda = service.importar(usuario, List.of(primeiroCafe, segundoCafe, almoco).iterator(), progresso -> {
+      });
+
+      // verificação
+      assertThat(primeira.getImportadas()).isEqualTo(3);
+      assertThat(segunda.getImportadas()).isZero();
+      assertThat(segunda.getDuplicadas()).isEqualTo(3);
+   }
+}
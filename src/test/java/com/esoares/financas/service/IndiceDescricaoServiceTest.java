@@ -0,0 +1,88 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.service.impl.IndiceDescricaoServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IndiceDescricaoServiceTest {
+
+   IndiceDescricaoServiceImpl indice;
+
+   @BeforeEach
+   public void setUp() {
+      LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+      Mockito.when(repository.streamDescricoes()).thenReturn(Stream.empty());
+      indice = new IndiceDescricaoServiceImpl(repository);
+      indice.reconstruir();
+   }
+
+   private static Lancamento lancamento(Long id, Long idUsuario, String descricao) {
+      return Lancamento.builder().id(id).descricao(descricao).usuario(Usuario.builder().id(idUsuario).build()).build();
+   }
+
+   @Test
+   public void deveEncontrarSemDiferenciarMaiusculasNemAcentos() {
+      indice.indexar(lancamento(1L, 1L, "Conta de Energia Elétrica"));
+      indice.indexar(lancamento(2L, 1L, "Aluguel"));
+
+      assertThat(indice.buscar(1L, "ELETRICA")).containsExactly(1L);
+      assertThat(indice.buscar(1L, "elé")).containsExactly(1L);
+      assertThat(indice.buscar(1L, "lu")).containsExactly(2L);
+   }
+
+   @Test
+   public void naoDeveRetornarLancamentosDeOutroUsuario() {
+      indice.indexar(lancamento(1L, 1L, "Salário"));
+      indice.indexar(lancamento(2L, 2L, "Salário"));
+
+      assertThat(indice.buscar(2L, "salario")).containsExactly(2L);
+      assertThat(indice.buscar(3L, "salario")).isEmpty();
+   }
+
+   @Test
+   public void deveConfirmarASequenciaDosTrigramas() {
+      // contém os trigramas "abc" e "bcd" mas não a sequência "abcd"
+      indice.indexar(lancamento(1L, 1L, "abc bcd"));
+
+      assertThat(indice.buscar(1L, "abcd")).isEmpty();
+   }
+
+   @Test
+   public void deveAtualizarERemoverDoIndice() {
+      indice.indexar(lancamento(1L, 1L, "Mercado"));
+      indice.indexar(lancamento(1L, 1L, "Farmácia"));
+
+      assertThat(indice.buscar(1L, "mercado")).isEmpty();
+      assertThat(indice.buscar(1L, "farmacia")).containsExactly(1L);
+
+      indice.remover(lancamento(1L, 1L, "Farmácia"));
+      assertThat(indice.buscar(1L, "farmacia")).isEmpty();
+   }
+
+   @Test
+   public void deveConferirNoBancoComAMesmaRegraAntesDaCarga() {
+      // cenário: índice ainda não carregado
+      LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+      LancamentoRepository.DescricaoIndexada energia = Mockito.mock(LancamentoRepository.DescricaoIndexada.class);
+      Mockito.when(energia.getId()).thenReturn(1L);
+      Mockito.when(energia.getDescricao()).thenReturn("Conta de Energia Elétrica");
+      LancamentoRepository.DescricaoIndexada aluguel = Mockito.mock(LancamentoRepository.DescricaoIndexada.class);
+      Mockito.when(aluguel.getId()).thenReturn(2L);
+      Mockito.when(aluguel.getDescricao()).thenReturn("Aluguel");
+      Mockito.when(repository.streamDescricoesPorUsuario(1L)).thenAnswer(invocacao -> Stream.of(energia, aluguel));
+      IndiceDescricaoServiceImpl naoCarregado = new IndiceDescricaoServiceImpl(repository);
+
+      // execução e verificação
+      assertThat(naoCarregado.buscar(1L, "ELETRICA")).containsExactly(1L);
+      assertThat(naoCarregado.buscar(1L, "lu")).containsExactly(2L);
+   }
+
+}
@@ -0,0 +1,73 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Usuario;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class JwtServiceTest {
+
+   @Autowired
+   JwtService service;
+
+   @Test
+   public void deveGerarTokenComAsClaimsDoUsuario() {
+      // cenário
+      Usuario usuario = Usuario.builder().id(7L).nome("usuario").email("usuario@email.com").build();
+
+      // execução
+      String token = service.generateToken(usuario);
+
+      // verificação
+      Claims claims = service.obterClaimsValidas(token).orElseThrow();
+      assertThat(claims.getSubject()).isEqualTo("usuario@email.com");
+      assertThat(claims.get("id", Long.class)).isEqualTo(7L);
+      assertThat(claims.get("nome", String.class)).isEqualTo("usuario");
+      assertThat(claims.getId()).isNotBlank();
+   }
+
+   @Test
+   public void deveInvalidarSomenteOTokenRevogado() {
+      // cenário
+      Usuario usuario = Usuario.builder().id(7L).nome("usuario").email("usuario@email.com").build();
+      String revogado = service.generateToken(usuario);
+      String outro = service.generateToken(usuario);
+
+      // execução
+      service.revogar(revogado);
+
+      // verificação
+      assertThat(service.isTokenValido(revogado)).isFalse();
+      assertThat(service.obterClaimsValidas(revogado)).isEmpty();
+      assertThat(service.isTokenValido(outro)).isTrue();
+   }
+
+   @Test
+   public void deveAutenticarPeloCacheAteARevogacao() {
+      // cenário
+      String token = service.generateToken(Usuario.builder().id(7L).nome("usuario").email("usuario@email.com").build());
+      UsuarioAutenticado primeiro = service.autenticar(token).orElseThrow();
+
+      // execução
+      UsuarioAutenticado segundo = service.autenticar(token).orElseThrow();
+      service.revogar(token);
+
+      // verificação: o segundo acesso vem do cache, e a revogação vale mesmo para o token já verificado
+      assertThat(primeiro.getId()).isEqualTo(7L);
+      assertThat(segundo).isSameAs(primeiro);
+      assertThat(service.autenticar(token)).isEmpty();
+   }
+
+   @Test
+   public void deveRejeitarTokenAdulterado() {
+      String token = service.generateToken(Usuario.builder().id(7L).nome("usuario").email("usuario@email.com").build());
+
+      assertThat(service.isTokenValido(token.substring(0, token.length() - 2) + "xx")).isFalse();
+   }
+}
@@ -1,24 +1,40 @@
 package com.esoares.financas.service;
 
+import com.esoares.financas.exception.ConflitoVersaoException;
 import com.esoares.financas.exception.RegraNegocioException;
 import com.esoares.financas.model.entity.Lancamento;
 import com.esoares.financas.model.entity.Usuario;
 import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.projection.LancamentoProjecao;
+import com.esoares.financas.model.projection.ValoresLancamento;
+import com.esoares.financas.model.repository.LancamentoFiltro;
 import com.esoares.financas.model.repository.LancamentoRepository;
 import com.esoares.financas.model.repository.LancamentoRepositoryTest;
 import com.esoares.financas.service.impl.LancamentoServiceImpl;
 import org.assertj.core.api.Assertions;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -33,6 +49,12 @@ public class LancamentoServiceTest {
    @MockBean
    LancamentoRepository repository;
 
+   @MockBean
+   SaldoUsuarioService saldoUsuarioService;
+
+   @MockBean
+   ResumoMensalService resumoMensalService;
+
    @Test
    public void deveSalvarUmLancamento() {
       // cenário
@@ -52,21 +74,66 @@ public class LancamentoServiceTest {
       assertThat(lancamento.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
    }
 
+   @Test
+   public void deveSalvarLoteInformandoOErroDeCadaItemInvalido() {
+      // cenário
+      Usuario usuario = Usuario.builder().id(1L).build();
+      List<Lancamento> lote = new ArrayList<>();
+      for (int i = 0; i < 3; i++) {
+         Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+         lancamento.setUsuario(usuario);
+         lote.add(lancamento);
+      }
+      lote.get(1).setDescricao(null);
+      Mockito.when(repository.saveAll(Mockito.anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+      // execução
+      ResultadoLote resultado = service.salvarEmLote(lote);
+
+      // verificação
+      assertThat(resultado.getSalvos()).containsExactly(lote.get(0), lote.get(2));
+      assertThat(resultado.getErros()).containsExactly(Map.entry(1, "Informe uma Descrição válida."));
+      Mockito.verify(repository, Mockito.times(1)).saveAll(Mockito.anyList());
+      Mockito.verify(saldoUsuarioService, Mockito.times(1)).registrarAlteracoes(Mockito.eq(List.of()), Mockito.argThat(incluidos -> incluidos.size() == 2));
+      Mockito.verify(resumoMensalService, Mockito.times(1)).registrarAlteracoes(Mockito.eq(List.of()), Mockito.argThat(incluidos -> incluidos.size() == 2));
+   }
+
    @Test
    public void deveAtualizarUmLancamento() {
       // cenário
       Lancamento lancamentoSalvo = LancamentoRepositoryTest.gerarLancamentoExemplo();
       lancamentoSalvo.setId(1L);
+      lancamentoSalvo.setVersao(3L);
       lancamentoSalvo.setStatus(StatusLancamento.PENDENTE);
 
       Mockito.doNothing().when(service).validar(lancamentoSalvo);
-      Mockito.when(repository.save(lancamentoSalvo)).thenReturn(lancamentoSalvo);
+      Mockito.when(repository.obterValores(1L)).thenReturn(Optional.of(ValoresLancamento.de(lancamentoSalvo)));
+      Mockito.when(repository.atualizarNaVersao(lancamentoSalvo)).thenReturn(1);
 
       //execução
-      service.atualizar(lancamentoSalvo);
+      Lancamento atualizado = service.atualizar(lancamentoSalvo);
 
-      // verificação
-      Mockito.verify(repository, Mockito.times(1)).save(lancamentoSalvo);
+      // verificação: um único update condicional, sem save/merge
+      Mockito.verify(repository, Mockito.times(1)).atualizarNaVersao(lancamentoSalvo);
+      Mockito.verify(repository, Mockito.never()).save(lancamentoSalvo);
+      assertThat(atualizado.getVersao()).isEqualTo(4L);
+   }
+
+   @Test
+   public void deveLancarConflitoAoAtualizarUmLancamentoAlteradoPorOutraOperacao() {
+      // cenário
+      Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+      lancamento.setId(1L);
+      lancamento.setVersao(3L);
+
+      Mockito.doNothing().when(service).validar(lancamento);
+      Mockito.when(repository.obterValores(1L)).thenReturn(Optional.of(ValoresLancamento.de(lancamento)));
+      Mockito.when(repository.atualizarNaVersao(lancamento)).thenReturn(0);
+
+      // execução e verificação
+      assertThatThrownBy(() -> service.atualizar(lancamento)).isInstanceOf(ConflitoVersaoException.class);
+      assertThat(lancamento.getVersao()).isEqualTo(3L);
+      Mockito.verify(saldoUsuarioService, Mockito.never()).registrarAlteracao(Mockito.any(), Mockito.any());
    }
 
    @Test
@@ -112,11 +179,99 @@ public class LancamentoServiceTest {
       Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
       lancamento.setId(1L);
 
-      List<Lancamento> lista = List.of(lancamento);
-      Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+      LancamentoProjecao projecao = new LancamentoProjecao(lancamento.getId(), lancamento.getDescricao(), lancamento.getMes(),
+              lancamento.getAno(), lancamento.getValor(), 1L, lancamento.getTipo(), lancamento.getStatus(), lancamento.getDataCadastro(), 0L);
+      List<LancamentoProjecao> lista = List.of(projecao);
+      Mockito.when(repository.buscarProjecoes(Mockito.any(Specification.class), Mockito.isNull(), Mockito.isNull())).thenReturn(lista);
+      // sem usuário no filtro as descrições são conferidas direto do banco
+      LancamentoRepository.DescricaoIndexada descricao = Mockito.mock(LancamentoRepository.DescricaoIndexada.class);
+      Mockito.when(descricao.getId()).thenReturn(1L);
+      Mockito.when(descricao.getDescricao()).thenReturn(lancamento.getDescricao());
+      Mockito.when(repository.streamDescricoes()).thenReturn(Stream.of(descricao));
+
+      List<LancamentoProjecao> resultado = service.buscar(LancamentoFiltro.builder().ano(2019).descricao("ex").build());
+      Assertions.assertThat(resultado).isNotEmpty().hasSize(1).contains(projecao);
+   }
+
+   @Test
+   public void deveConsultarOsCandidatosDoIndiceEmBlocos() {
+      // cenário: um termo comum casa com mais ids do que cabem em um IN
+      LancamentoRepository repositorio = Mockito.mock(LancamentoRepository.class);
+      IndiceDescricaoService indice = Mockito.mock(IndiceDescricaoService.class);
+      int quantidade = LancamentoServiceImpl.TAMANHO_BLOCO * 2 + 1;
+      Set<Long> candidatos = LongStream.rangeClosed(1, quantidade).boxed().collect(Collectors.toSet());
+      Mockito.when(indice.buscar(1L, "co")).thenReturn(candidatos);
+      Mockito.when(repositorio.count(Mockito.any(Specification.class))).thenReturn(3L);
+      LancamentoServiceImpl servico = new LancamentoServiceImpl(repositorio, null, null, indice, null, null);
+
+      // execução
+      long total = servico.contar(LancamentoFiltro.builder().idUsuario(1L).descricao("co").build());
+
+      // verificação: um count por bloco, cada um restrito aos seus ids, sem like
+      ArgumentCaptor<Specification<Lancamento>> specifications = ArgumentCaptor.forClass(Specification.class);
+      Mockito.verify(repositorio, Mockito.times(3)).count(specifications.capture());
+      assertThat(total).isEqualTo(9L);
+      List<Collection<?>> blocos = new ArrayList<>();
+      for (Specification<Lancamento> specification : specifications.getAllValues()) {
+         Root<Lancamento> root = Mockito.mock(Root.class, Mockito.RETURNS_DEEP_STUBS);
+         CriteriaBuilder cb = Mockito.mock(CriteriaBuilder.class, Mockito.RETURNS_DEEP_STUBS);
+         specification.toPredicate(root, Mockito.mock(CriteriaQuery.class), cb);
+         ArgumentCaptor<Collection<?>> ids = ArgumentCaptor.forClass(Collection.class);
+         Mockito.verify(root.get("id")).in(ids.capture());
+         Mockito.verify(cb, Mockito.never()).like(Mockito.any(), Mockito.anyString(), Mockito.anyChar());
+         blocos.add(ids.getValue());
+      }
+      assertThat(blocos).extracting(Collection::size)
+              .containsExactly(LancamentoServiceImpl.TAMANHO_BLOCO, LancamentoServiceImpl.TAMANHO_BLOCO, 1);
+   }
+
+   @Test
+   public void devePaginarOsBlocosDoIndiceAteOLimite() {
+      // cenário: o primeiro bloco já traz linhas suficientes
+      LancamentoRepository repositorio = Mockito.mock(LancamentoRepository.class);
+      IndiceDescricaoService indice = Mockito.mock(IndiceDescricaoService.class);
+      Set<Long> candidatos = LongStream.rangeClosed(1, LancamentoServiceImpl.TAMANHO_BLOCO * 2).boxed().collect(Collectors.toSet());
+      Mockito.when(indice.buscar(1L, "co")).thenReturn(candidatos);
+      List<LancamentoProjecao> linhas = List.of(
+              LancamentoProjecao.builder().id(11L).build(),
+              LancamentoProjecao.builder().id(12L).build(),
+              LancamentoProjecao.builder().id(13L).build());
+      Mockito.when(repositorio.buscarProjecoes(Mockito.any(Specification.class), Mockito.isNull(), Mockito.eq(3))).thenReturn(linhas);
+      LancamentoServiceImpl servico = new LancamentoServiceImpl(repositorio, null, null, indice, null, null);
+
+      // execução
+      Window<LancamentoProjecao> janela = servico.buscar(LancamentoFiltro.builder().idUsuario(1L).descricao("co").build(), 10L, 2);
+
+      // verificação: o segundo bloco não é consultado
+      Mockito.verify(repositorio, Mockito.times(1)).buscarProjecoes(Mockito.any(Specification.class), Mockito.any(), Mockito.any());
+      assertThat(janela.getContent()).extracting(LancamentoProjecao::getId).containsExactly(11L, 12L);
+      assertThat(janela.hasNext()).isTrue();
+   }
+
+   @Test
+   public void deveIndicarQueExisteProximaPagina() {
+      List<LancamentoProjecao> linhas = List.of(
+              LancamentoProjecao.builder().id(1L).build(),
+              LancamentoProjecao.builder().id(2L).build(),
+              LancamentoProjecao.builder().id(3L).build());
+      Mockito.when(repository.buscarProjecoes(Mockito.any(Specification.class), Mockito.eq(0L), Mockito.eq(3))).thenReturn(linhas);
+
+      Window<LancamentoProjecao> janela = service.buscar(LancamentoFiltro.builder().idUsuario(1L).build(), 0L, 2);
+
+      Assertions.assertThat(janela.getContent()).extracting(LancamentoProjecao::getId).containsExactly(1L, 2L);
+      Assertions.assertThat(janela.hasNext()).isTrue();
+   }
+
+   @Test
+   public void deveExportarOsLancamentosDoUsuario() {
+      Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+      lancamento.setId(1L);
+      Mockito.when(repository.streamPorUsuario(1L)).thenReturn(Stream.of(lancamento));
+
+      List<Lancamento> exportados = new ArrayList<>();
+      service.exportar(1L, exportados::add);
 
-      List<Lancamento> resultado = service.buscar(lancamento);
-      Assertions.assertThat(resultado).isNotEmpty().hasSize(1).contains(lancamento);
+      Assertions.assertThat(exportados).containsExactly(lancamento);
    }
 
    @Test
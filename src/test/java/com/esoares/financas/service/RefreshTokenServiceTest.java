@@ -0,0 +1,102 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.exception.ErroAutenticacao;
+import com.esoares.financas.model.entity.RefreshToken;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.repository.RefreshTokenRepository;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RefreshTokenServiceTest {
+
+   @Autowired
+   RefreshTokenService service;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Autowired
+   RefreshTokenRepository refreshTokenRepository;
+
+   @Test
+   public void deveTrocarORefreshTokenACadaRenovacao() {
+      // cenário
+      Usuario usuario = criarUsuario();
+      String emitido = service.emitir(usuario);
+
+      // execução
+      Renovacao renovacao = service.renovar(emitido);
+
+      // verificação
+      assertThat(renovacao.getUsuario().getId()).isEqualTo(usuario.getId());
+      assertThat(renovacao.getRefreshToken()).isNotEqualTo(emitido);
+      assertThat(service.renovar(renovacao.getRefreshToken()).getUsuario().getId()).isEqualTo(usuario.getId());
+   }
+
+   @Test
+   public void deveRevogarAFamiliaQuandoUmTokenUsadoReaparecer() {
+      // cenário
+      Usuario usuario = criarUsuario();
+      String emitido = service.emitir(usuario);
+      String renovado = service.renovar(emitido).getRefreshToken();
+
+      // execução: o token original é apresentado de novo
+      assertThatThrownBy(() -> service.renovar(emitido)).isInstanceOf(ErroAutenticacao.class);
+
+      // verificação: o token legítimo mais recente também deixa de valer
+      assertThatThrownBy(() -> service.renovar(renovado)).isInstanceOf(ErroAutenticacao.class);
+   }
+
+   @Test
+   public void deveRecusarRefreshTokenDesconhecido() {
+      assertThatThrownBy(() -> service.renovar("desconhecido"))
+              .isInstanceOf(ErroAutenticacao.class)
+              .hasMessage("Refresh token inválido.");
+   }
+
+   @Test
+   public void deveRemoverSomenteTokensVencidosOuUsadosAlemDaRetencao() {
+      // cenário: validade de 30 dias e retenção de 7 para os usados
+      Usuario usuario = criarUsuario();
+      String emitido = service.emitir(usuario);
+      String renovado = service.renovar(emitido).getRefreshToken();
+      String expirado = gravar(usuario, LocalDateTime.now().minusDays(1), false);
+      String usadoAntigo = gravar(usuario, LocalDateTime.now().plusDays(20), true);
+      String naoUsado = gravar(usuario, LocalDateTime.now().plusDays(20), false);
+
+      // execução
+      service.removerVencidos();
+
+      // verificação: o token usado recente continua gravado e ainda denuncia a reutilização
+      assertThat(refreshTokenRepository.findByHash(expirado)).isEmpty();
+      assertThat(refreshTokenRepository.findByHash(usadoAntigo)).isEmpty();
+      assertThat(refreshTokenRepository.findByHash(naoUsado)).isPresent();
+      assertThatThrownBy(() -> service.renovar(emitido))
+              .isInstanceOf(ErroAutenticacao.class)
+              .hasMessage("Refresh token já utilizado, autentique-se novamente.");
+      assertThatThrownBy(() -> service.renovar(renovado)).isInstanceOf(ErroAutenticacao.class);
+   }
+
+   private String gravar(Usuario usuario, LocalDateTime expiracao, boolean usado) {
+      String hash = UUID.randomUUID().toString().replace("-", "");
+      refreshTokenRepository.save(RefreshToken.builder().hash(hash).familia(UUID.randomUUID().toString())
+              .idUsuario(usuario.getId()).expiracao(expiracao).usado(usado).build());
+      return hash;
+   }
+
+   private Usuario criarUsuario() {
+      String email = UUID.randomUUID() + "@email.com";
+      return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+   }
+}
@@ -0,0 +1,120 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.ResumoMensal;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.repository.LancamentoRepository;
+import com.esoares.financas.model.repository.LancamentoRepositoryTest;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ResumoMensalServiceTest {
+
+   @Autowired
+   LancamentoService lancamentoService;
+
+   @Autowired
+   ResumoMensalService service;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Autowired
+   LancamentoRepository lancamentoRepository;
+
+   @Test
+   public void deveManterOResumoMensalAoAlterarLancamentos() {
+      // cenário
+      Usuario usuario = usuarioRepository.save(
+              Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com").senha("senha").build());
+      Lancamento receita = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 1, 100));
+      lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 1, 20));
+      Lancamento despesa = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 1, 30));
+      Lancamento excluida = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 2, 5));
+
+      // execução
+      lancamentoService.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+      despesa.setMes(3);
+      lancamentoService.atualizar(despesa);
+      lancamentoService.deletar(excluida);
+
+      // verificação
+      List<ResumoMensal> resumo = service.obterResumo(usuario.getId(), 2019);
+      assertThat(resumo).hasSize(3);
+
+      assertThat(resumo.get(0).getId().getMes()).isEqualTo(1);
+      assertThat(resumo.get(0).getId().getTipo()).isEqualTo(TipoLancamento.RECEITA);
+      assertThat(resumo.get(0).getId().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+      assertThat(resumo.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(100));
+      assertThat(resumo.get(0).getQuantidade()).isEqualTo(1L);
+
+      assertThat(resumo.get(1).getId().getMes()).isEqualTo(1);
+      assertThat(resumo.get(1).getId().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+      assertThat(resumo.get(1).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(20));
+      assertThat(resumo.get(1).getQuantidade()).isEqualTo(1L);
+
+      assertThat(resumo.get(2).getId().getMes()).isEqualTo(3);
+      assertThat(resumo.get(2).getId().getTipo()).isEqualTo(TipoLancamento.DESPESA);
+      assertThat(resumo.get(2).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(30));
+      assertThat(resumo.get(2).getQuantidade()).isEqualTo(1L);
+   }
+
+   @Test
+   public void deveReconstruirOResumoDoHistoricoGravadoSemEle() {
+      // cenário: lançamentos anteriores ao resumo, gravados direto na tabela
+      Usuario usuario = usuarioRepository.save(
+              Usuario.builder().nome("usuario").email(UUID.randomUUID() + "@email.com").senha("senha").build());
+      Lancamento efetivado = gerarLancamento(usuario, TipoLancamento.RECEITA, 4, 100);
+      efetivado.setStatus(StatusLancamento.EFETIVADO);
+      lancamentoRepository.saveAll(List.of(efetivado,
+              gerarLancamento(usuario, TipoLancamento.RECEITA, 4, 20),
+              gerarLancamento(usuario, TipoLancamento.RECEITA, 4, 5),
+              gerarLancamento(usuario, TipoLancamento.DESPESA, 7, 30)));
+      assertThat(service.obterResumo(usuario.getId(), 2019)).isEmpty();
+
+      // execução
+      int linhas = service.reconstruir(usuario.getId());
+      lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 7, 10));
+
+      // verificação
+      assertThat(linhas).isEqualTo(3);
+      List<ResumoMensal> resumo = service.obterResumo(usuario.getId(), 2019);
+      assertThat(resumo).hasSize(3);
+
+      assertThat(resumo.get(0).getId().getMes()).isEqualTo(4);
+      assertThat(resumo.get(0).getId().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+      assertThat(resumo.get(0).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(100));
+
+      assertThat(resumo.get(1).getId().getMes()).isEqualTo(4);
+      assertThat(resumo.get(1).getId().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+      assertThat(resumo.get(1).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(25));
+      assertThat(resumo.get(1).getQuantidade()).isEqualTo(2L);
+
+      assertThat(resumo.get(2).getId().getMes()).isEqualTo(7);
+      assertThat(resumo.get(2).getId().getTipo()).isEqualTo(TipoLancamento.DESPESA);
+      assertThat(resumo.get(2).getTotal()).isEqualByComparingTo(BigDecimal.valueOf(40));
+      assertThat(resumo.get(2).getQuantidade()).isEqualTo(2L);
+   }
+
+   private static Lancamento gerarLancamento(Usuario usuario, TipoLancamento tipo, int mes, long valor) {
+      Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      lancamento.setTipo(tipo);
+      lancamento.setMes(mes);
+      lancamento.setValor(BigDecimal.valueOf(valor));
+      return lancamento;
+   }
+}
@@ -0,0 +1,165 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.model.entity.Lancamento;
+import com.esoares.financas.model.entity.SaldoUsuario;
+import com.esoares.financas.model.entity.Usuario;
+import com.esoares.financas.model.enums.StatusLancamento;
+import com.esoares.financas.model.enums.TipoLancamento;
+import com.esoares.financas.model.repository.LancamentoRepositoryTest;
+import com.esoares.financas.model.repository.SaldoUsuarioRepository;
+import com.esoares.financas.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+   @Autowired
+   LancamentoService lancamentoService;
+
+   @Autowired
+   SaldoUsuarioService service;
+
+   @Autowired
+   SaldoUsuarioRepository repository;
+
+   @Autowired
+   UsuarioRepository usuarioRepository;
+
+   @Test
+   public void deveManterOSaldoConsistenteComAlteracoesConcorrentes() throws Exception {
+      // cenário
+      Usuario usuario = criarUsuario();
+      int threads = 8;
+      int operacoes = 20;
+
+      // execução: cada operação inclui e efetiva uma receita e inclui e exclui uma despesa
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      List<Future<?>> tarefas = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+         tarefas.add(executor.submit(() -> {
+            for (int j = 0; j < operacoes; j++) {
+               Lancamento receita = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 10));
+               lancamentoService.atualizarStatus(receita, StatusLancamento.EFETIVADO);
+               Lancamento despesa = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 3));
+               lancamentoService.deletar(despesa);
+            }
+            return null;
+         }));
+      }
+      for (Future<?> tarefa : tarefas) {
+         tarefa.get();
+      }
+      executor.shutdown();
+
+      // verificação
+      SaldoUsuario saldo = repository.findById(usuario.getId()).orElseThrow();
+      assertThat(saldo.getSaldoEfetivado()).isEqualByComparingTo(BigDecimal.valueOf(10L * threads * operacoes));
+      assertThat(saldo.getSaldoPendente()).isEqualByComparingTo(BigDecimal.ZERO);
+
+      SaldoUsuario reconciliado = service.reconciliar(usuario.getId());
+      assertThat(reconciliado.getSaldoEfetivado()).isEqualByComparingTo(saldo.getSaldoEfetivado());
+      assertThat(reconciliado.getSaldoPendente()).isEqualByComparingTo(saldo.getSaldoPendente());
+   }
+
+   @Test
+   public void deveCorrigirSaldoDivergenteAoReconciliar() {
+      // cenário
+      Usuario usuario = criarUsuario();
+      lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 50));
+      lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 20));
+
+      SaldoUsuario divergente = repository.findById(usuario.getId()).orElseThrow();
+      divergente.setSaldoPendente(BigDecimal.valueOf(999));
+      repository.save(divergente);
+
+      // execução
+      SaldoUsuario saldo = service.reconciliar(usuario.getId());
+
+      // verificação
+      assertThat(saldo.getSaldoPendente()).isEqualByComparingTo(BigDecimal.valueOf(30));
+      assertThat(repository.findById(usuario.getId()).orElseThrow().getSaldoPendente())
+              .isEqualByComparingTo(BigDecimal.valueOf(30));
+   }
+
+   @Test
+   public void deveRemoverSaldoDoCacheAoAlterarLancamentoDoUsuario() {
+      // cenário
+      Usuario usuario = criarUsuario();
+      Usuario outroUsuario = criarUsuario();
+      Lancamento lancamento = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 40));
+      lancamentoService.salvar(gerarLancamento(outroUsuario, TipoLancamento.RECEITA, 5));
+
+      SaldoUsuario emCache = service.obterSaldo(usuario.getId());
+      SaldoUsuario outroEmCache = service.obterSaldo(outroUsuario.getId());
+      assertThat(service.obterSaldo(usuario.getId())).isSameAs(emCache);
+
+      // execução
+      lancamentoService.atualizarStatus(lancamento, StatusLancamento.EFETIVADO);
+
+      // verificação: só o usuário afetado sai do cache
+      SaldoUsuario saldo = service.obterSaldo(usuario.getId());
+      assertThat(saldo).isNotSameAs(emCache);
+      assertThat(saldo.getSaldoEfetivado()).isEqualByComparingTo(BigDecimal.valueOf(40));
+      assertThat(saldo.getSaldoPendente()).isEqualByComparingTo(BigDecimal.ZERO);
+      assertThat(service.obterSaldo(outroUsuario.getId())).isSameAs(outroEmCache);
+   }
+
+   @Test
+   public void deveManterOSaldoAoAtualizarStatusEmLote() {
+      // cenário
+      Usuario usuario = criarUsuario();
+      Usuario outroUsuario = criarUsuario();
+      Lancamento receita = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 100));
+      Lancamento despesa = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.DESPESA, 30));
+      Lancamento efetivada = lancamentoService.salvar(gerarLancamento(usuario, TipoLancamento.RECEITA, 7));
+      lancamentoService.atualizarStatus(efetivada, StatusLancamento.EFETIVADO);
+      Lancamento deOutroUsuario = lancamentoService.salvar(gerarLancamento(outroUsuario, TipoLancamento.RECEITA, 5));
+
+      // execução
+      Map<Long, ResultadoAtualizacaoStatus> resultado = lancamentoService.atualizarStatusEmLote(usuario.getId(),
+              List.of(receita.getId(), despesa.getId(), efetivada.getId(), deOutroUsuario.getId()),
+              StatusLancamento.EFETIVADO);
+
+      // verificação
+      assertThat(resultado).containsExactly(
+              Map.entry(receita.getId(), ResultadoAtualizacaoStatus.ATUALIZADO),
+              Map.entry(despesa.getId(), ResultadoAtualizacaoStatus.ATUALIZADO),
+              Map.entry(efetivada.getId(), ResultadoAtualizacaoStatus.INALTERADO),
+              Map.entry(deOutroUsuario.getId(), ResultadoAtualizacaoStatus.NAO_ENCONTRADO));
+      assertThat(lancamentoService.obterPorId(deOutroUsuario.getId()).orElseThrow().getStatus())
+              .isEqualTo(StatusLancamento.PENDENTE);
+
+      SaldoUsuario saldo = service.obterSaldo(usuario.getId());
+      assertThat(saldo.getSaldoEfetivado()).isEqualByComparingTo(BigDecimal.valueOf(77));
+      assertThat(saldo.getSaldoPendente()).isEqualByComparingTo(BigDecimal.ZERO);
+      assertThat(service.reconciliar(usuario.getId()).getSaldoEfetivado()).isEqualByComparingTo(BigDecimal.valueOf(77));
+   }
+
+   private Usuario criarUsuario() {
+      String email = UUID.randomUUID() + "@email.com";
+      return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+   }
+
+   private static Lancamento gerarLancamento(Usuario usuario, TipoLancamento tipo, long valor) {
+      Lancamento lancamento = LancamentoRepositoryTest.gerarLancamentoExemplo();
+      lancamento.setUsuario(usuario);
+      lancamento.setTipo(tipo);
+      lancamento.setValor(BigDecimal.valueOf(valor));
+      return lancamento;
+   }
+}
@@ -0,0 +1,70 @@
+package com.esoares.financas.service;
+
+import com.esoares.financas.exception.SobrecargaException;
+import com.esoares.financas.service.impl.SenhaServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SenhaServiceTest {
+
+   @Test
+   public void deveRecusarNaHoraQuandoAFilaEstiverCheia() throws Exception {
+      // cenário: um thread ocupado e uma posição de fila
+      CountDownLatch liberar = new CountDownLatch(1);
+      CountDownLatch iniciou = new CountDownLatch(1);
+      PasswordEncoder encoder = Mockito.mock(PasswordEncoder.class);
+      Mockito.when(encoder.encode(Mockito.anyString())).thenAnswer(invocacao -> {
+         iniciou.countDown();
+         liberar.await();
+         return "hash";
+      });
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      SenhaService service = new SenhaServiceImpl(encoder, registry, 1, 1, 3);
+
+      CompletableFuture<String> emExecucao = CompletableFuture.supplyAsync(() -> service.criptografar("a"));
+      assertThat(iniciou.await(5, TimeUnit.SECONDS)).isTrue();
+      CompletableFuture<String> naFila = CompletableFuture.supplyAsync(() -> service.criptografar("b"));
+      while (registry.get("senha.hash.fila").gauge().value() < 1) {
+         Thread.onSpinWait();
+      }
+
+      // execução e verificação
+      assertThatThrownBy(() -> service.criptografar("c"))
+              .isInstanceOf(SobrecargaException.class)
+              .extracting(e -> ((SobrecargaException) e).getRetryAfterSegundos()).isEqualTo(3L);
+      assertThat(registry.get("senha.hash.rejeitadas").counter().count()).isEqualTo(1.0);
+
+      liberar.countDown();
+      assertThat(emExecucao.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+      assertThat(naFila.get(5, TimeUnit.SECONDS)).isEqualTo("hash");
+   }
+
+   @Test
+   public void deveMedirEsperaEDuracaoEIndicarHashFraco() {
+      // cenário
+      SimpleMeterRegistry registry = new SimpleMeterRegistry();
+      SenhaService service = new SenhaServiceImpl(new BCryptPasswordEncoder(5), registry, 1, 4, 1);
+      String hashFraco = new BCryptPasswordEncoder(4).encode("senha");
+
+      // execução
+      String hash = service.criptografar("senha");
+      boolean confere = service.confere("senha", hashFraco);
+
+      // verificação
+      assertThat(confere).isTrue();
+      assertThat(service.precisaRecriptografar(hashFraco)).isTrue();
+      assertThat(service.precisaRecriptografar(hash)).isFalse();
+      assertThat(registry.get("senha.hash.espera").tag("operacao", "criptografar").timer().count()).isEqualTo(1);
+      assertThat(registry.get("senha.hash.duracao").tag("operacao", "conferir").timer().count()).isEqualTo(1);
+   }
+}
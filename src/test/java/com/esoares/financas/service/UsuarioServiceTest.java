@@ -11,6 +11,8 @@ import org.mockito.Mockito;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.Optional;
@@ -61,7 +63,7 @@ public class UsuarioServiceTest {
    public void deveAutenticarUmUsuarioComSucesso() {
       String email = "email@email.com";
       String senha = "senha";
-      Usuario usuario = Usuario.builder().email(email).senha(senha).build();
+      Usuario usuario = Usuario.builder().email(email).senha(new BCryptPasswordEncoder().encode(senha)).build();
 
       Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuario));
       Usuario result = service.autenticar(email, senha);
@@ -92,6 +94,41 @@ public class UsuarioServiceTest {
               .hasMessage("Senha inválida.");
    }
 
+   @Test
+   public void deveRecriptografarSenhaComFatorDeCustoAntigoAoAutenticar() {
+      // cenário
+      String hashAntigo = new BCryptPasswordEncoder(4).encode("senha");
+      Usuario usuario = Usuario.builder().id(1L).email("email@email.com").senha(hashAntigo).build();
+      Mockito.when(repository.findByEmail("email@email.com")).thenReturn(Optional.of(usuario));
+      Mockito.when(repository.atualizarSenha(Mockito.eq(1L), Mockito.eq(hashAntigo), Mockito.anyString())).thenReturn(1);
+
+      // ação
+      Usuario autenticado = service.autenticar("email@email.com", "senha");
+
+      // verificação
+      Mockito.verify(repository).atualizarSenha(Mockito.eq(1L), Mockito.eq(hashAntigo), Mockito.anyString());
+      Assertions.assertThat(autenticado.getSenha()).isNotEqualTo(hashAntigo);
+      Assertions.assertThat(new BCryptPasswordEncoder().matches("senha", autenticado.getSenha())).isTrue();
+   }
+
+   @Test
+   public void deveRemoverDoCacheOUsuarioComSenhaRecriptografada() {
+      // cenário
+      String hashAntigo = new BCryptPasswordEncoder(4).encode("senha");
+      Usuario usuario = Usuario.builder().id(2L).email("cache@email.com").senha(hashAntigo).build();
+      Mockito.when(repository.findById(2L)).thenReturn(Optional.of(Usuario.builder().id(2L).senha(hashAntigo).build()));
+      Mockito.when(repository.findByEmail("cache@email.com")).thenReturn(Optional.of(usuario));
+      Mockito.when(repository.atualizarSenha(Mockito.eq(2L), Mockito.eq(hashAntigo), Mockito.anyString())).thenReturn(1);
+      service.obterPorId(2L);
+
+      // ação
+      service.autenticar("cache@email.com", "senha");
+      service.obterPorId(2L);
+
+      // verificação: a segunda leitura vai ao banco em vez de devolver o hash antigo
+      Mockito.verify(repository, Mockito.times(2)).findById(2L);
+   }
+
    @Test
    public void deveSalvarUsuario() {
       // cenário
@@ -108,7 +145,7 @@ public class UsuarioServiceTest {
       Assertions.assertThat(usuarioSalvo.getId()).isEqualTo(1L);
       Assertions.assertThat(usuarioSalvo.getNome()).isEqualTo("Usuario");
       Assertions.assertThat(usuarioSalvo.getEmail()).isEqualTo("usuario@email.com");
-      Assertions.assertThat(usuarioSalvo.getSenha()).isEqualTo("senha");
+      Assertions.assertThat(new BCryptPasswordEncoder().matches("senha", usuarioSalvo.getSenha())).isTrue();
    }
 
    @Test
@@ -124,6 +161,19 @@ public class UsuarioServiceTest {
 
    }
 
+   @Test
+   public void naoDeveSalvarUsuarioQuandoOIndiceUnicoBarrarOEmail() {
+      // cenário: outro cadastro com o mesmo e-mail passou pela validação ao mesmo tempo
+      Mockito.doNothing().when(service).validarEmail(Mockito.anyString());
+      Mockito.when(repository.save(Mockito.any(Usuario.class)))
+              .thenThrow(new DataIntegrityViolationException("idx_usuario_email"));
+
+      // ação e verificação
+      Assertions.assertThatThrownBy(() -> service.salvarUsuario(criarUsuarioExemplo()))
+              .isInstanceOf(RegraNegocioException.class)
+              .hasMessage("Já existe um usuário cadastrado com este email.");
+   }
+
    private static Usuario criarUsuarioExemplo() {
       return Usuario
               .builder()